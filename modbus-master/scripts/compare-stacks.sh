@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+# Runs the same HTTP load against the servlet (default) and the reactive profile and prints
+# hey's summary (requests/sec and latency distribution) for each.
+#
+# Requires a reachable MongoDB, mongosh, hey (https://github.com/rakyll/hey) and a built jar:
+#   ./mvnw -DskipTests package
+#   MONGO_URI=mongodb://localhost:27017 scripts/compare-stacks.sh
+#
+# The seeded job is STOPPED, so nothing polls while the load runs. Both profiles read the same data.
+set -euo pipefail
+
+MONGO_URI=${MONGO_URI:?set MONGO_URI}
+DATABASE=${DATABASE:-modbus-monitor}
+JAR=${JAR:-target/modbus-master-0.0.1-SNAPSHOT.jar}
+PORT=${PORT:-8080}
+EXECUTIONS=${EXECUTIONS:-100000}
+DURATION=${DURATION:-60s}
+WARMUP=${WARMUP:-15s}
+PAGE_CONCURRENCY=${PAGE_CONCURRENCY:-500}
+EXPORT_CONCURRENCY=${EXPORT_CONCURRENCY:-20}
+JOB_ID=loadtest-job
+BASE_URL="http://localhost:${PORT}/api/jobs/${JOB_ID}"
+
+seed() {
+  mongosh "$MONGO_URI" --quiet --eval "
+    const d = db.getSiblingDB('$DATABASE');
+    d.jobs.replaceOne({_id: '$JOB_ID'},
+      {_id: '$JOB_ID', targetIp: '127.0.0.1', cronExpression: '0 0 0 1 1 *', status: 'STOPPED', createdAt: new Date()},
+      {upsert: true});
+    d.job_executions.deleteMany({jobId: '$JOB_ID'});
+    const start = Date.now() - $EXECUTIONS * 5000;
+    let batch = [];
+    for (let i = 0; i < $EXECUTIONS; i++) {
+      batch.push({jobId: '$JOB_ID', targetIp: '127.0.0.1', unitId: 1 + i % 4, executionTime: new Date(start + i * 5000),
+        status: 'COMPLETED', telemetry: {cpu: Math.random() * 100, ram: Math.random() * 100, disk: Math.random() * 100}});
+      if (batch.length === 10000) { d.job_executions.insertMany(batch); batch = []; }
+    }
+    if (batch.length) d.job_executions.insertMany(batch);
+    print('seeded ' + d.job_executions.countDocuments({jobId: '$JOB_ID'}) + ' executions');
+  "
+}
+
+run_profile() {
+  local profile=$1
+  echo "=== profile: ${profile} ==="
+  SPRING_PROFILES_ACTIVE=$profile MONGO_URI=$MONGO_URI java -jar "$JAR" --server.port="$PORT" > "loadtest-${profile}.log" 2>&1 &
+  local pid=$!
+  trap "kill $pid 2>/dev/null || true" EXIT
+  until curl -sf "http://localhost:${PORT}/actuator/health" > /dev/null; do sleep 1; done
+  grep -m1 -E "(Tomcat|Netty) started" "loadtest-${profile}.log" || true
+
+  hey -z "$WARMUP" -c 50 "${BASE_URL}?page=0&size=100" > /dev/null
+
+  echo "--- GET /api/jobs/{id}?page=0&size=100, ${PAGE_CONCURRENCY} connections, ${DURATION}"
+  hey -z "$DURATION" -c "$PAGE_CONCURRENCY" "${BASE_URL}?page=0&size=100"
+
+  echo "--- GET /api/jobs/{id}/executions/export (${EXECUTIONS} rows), ${EXPORT_CONCURRENCY} connections, ${DURATION}"
+  hey -z "$DURATION" -c "$EXPORT_CONCURRENCY" -t 0 "${BASE_URL}/executions/export"
+
+  kill "$pid"
+  wait "$pid" 2>/dev/null || true
+  trap - EXIT
+}
+
+seed
+run_profile default
+run_profile reactive
@@ -1,6 +1,7 @@
 package com.hasintha.modbus.master.Config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -17,6 +18,7 @@ import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
  * - Credentials in requests (configurable)
  */
 @Configuration
+@Profile("!reactive") // see ReactiveCorsConfig
 public class CorsConfig implements WebMvcConfigurer {
 
     @Override
@@ -29,7 +31,7 @@ public class CorsConfig implements WebMvcConfigurer {
                 // Allow all request headers
                 .allowedHeaders("*")
                 // Expose these headers to the client
-                .exposedHeaders("Content-Type", "Authorization", "X-Total-Count", "X-Page-Number")
+                .exposedHeaders("Content-Type", "Authorization", "X-Total-Count", "X-Page-Number", "ETag")
                 // Don't allow credentials (set to true if needed)
                 .allowCredentials(false)
                 // Cache preflight requests for 1 hour
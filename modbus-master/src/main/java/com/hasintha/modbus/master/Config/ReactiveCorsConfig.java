@@ -0,0 +1,26 @@
+package com.hasintha.modbus.master.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.web.reactive.config.CorsRegistry;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+
+/**
+ * WebFlux counterpart of {@link CorsConfig}, active with the "reactive" profile.
+ * Keep both in sync.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveCorsConfig implements WebFluxConfigurer {
+
+    @Override
+    public void addCorsMappings(CorsRegistry registry) {
+        registry.addMapping("/**")
+                .allowedOrigins("http://localhost:3000", "http://localhost:8080", "http://127.0.0.1:3000", "http://127.0.0.1:8080")
+                .allowedMethods("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS")
+                .allowedHeaders("*")
+                .exposedHeaders("Content-Type", "Authorization", "X-Total-Count", "X-Page-Number", "ETag")
+                .allowCredentials(false)
+                .maxAge(3600);
+    }
+}
@@ -0,0 +1,35 @@
+package com.hasintha.modbus.master.Config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.embedded.netty.NettyRouteProvider;
+import org.springframework.boot.web.embedded.netty.NettyServerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.client.ReactorResourceFactory;
+
+/**
+ * Runs the "reactive" profile on Reactor Netty.
+ *
+ * spring-boot-starter-web keeps Tomcat on the classpath for the default (servlet) stack, and Spring Boot
+ * prefers Tomcat over Netty for reactive applications too. Declaring the factory here makes the
+ * auto-configured Tomcat factory back off.
+ */
+@Configuration
+@Profile("reactive")
+public class ReactiveServerConfig {
+
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory(
+            ObjectProvider<ReactorResourceFactory> resourceFactory,
+            ObjectProvider<NettyServerCustomizer> serverCustomizers,
+            ObjectProvider<NettyRouteProvider> routes) {
+        NettyReactiveWebServerFactory factory = new NettyReactiveWebServerFactory();
+        // Same customizations Spring Boot applies to the factory it would have created
+        resourceFactory.ifAvailable(factory::setResourceFactory);
+        factory.getServerCustomizers().addAll(serverCustomizers.orderedStream().toList());
+        routes.orderedStream().forEach(factory::addRouteProviders);
+        return factory;
+    }
+}
@@ -0,0 +1,90 @@
+package com.hasintha.modbus.master.Controller;
+
+import com.hasintha.modbus.master.Model.Alert;
+import com.hasintha.modbus.master.Model.AlertRule;
+import com.hasintha.modbus.master.Repository.AlertRepository;
+import com.hasintha.modbus.master.Service.AlertEngine;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+/**
+ * Alert rules, alert history and the live alert subscription.
+ *
+ * Handlers return Mono/Flux so this controller serves both the servlet and the "reactive" stack;
+ * Mongo access runs on the bounded elastic scheduler.
+ */
+@RestController
+@RequestMapping("/api/alerts")
+public class AlertController {
+
+    // Pagination constants
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final AlertEngine alertEngine;
+    private final AlertRepository alertRepository;
+
+    public AlertController(AlertEngine alertEngine, AlertRepository alertRepository) {
+        this.alertEngine = alertEngine;
+        this.alertRepository = alertRepository;
+    }
+
+    // 1. List alert rules
+    @GetMapping("/rules")
+    public List<AlertRule> getRules() {
+        return alertEngine.getRules();
+    }
+
+    // 2. Create an alert rule
+    @PostMapping("/rules")
+    public Mono<ResponseEntity<AlertRule>> createRule(@RequestBody AlertRule rule) {
+        return Mono.fromCallable(() -> alertEngine.addRule(rule))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(ResponseEntity::ok);
+    }
+
+    // 3. Delete an alert rule
+    @DeleteMapping("/rules/{ruleId}")
+    public Mono<ResponseEntity<Void>> deleteRule(@PathVariable String ruleId) {
+        return Mono.fromRunnable(() -> alertEngine.deleteRule(ruleId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+    }
+
+    // 4. Alert history, newest first (optionally for one job)
+    @GetMapping
+    public Mono<List<Alert>> getAlerts(
+            @RequestParam(required = false) String jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
+
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+        return Mono.fromCallable(() -> {
+                    Page<Alert> alerts = jobId != null
+                            ? alertRepository.findByJobIdOrderByTimestampDesc(jobId, pageable)
+                            : alertRepository.findAllByOrderByTimestampDesc(pageable);
+                    return alerts.getContent();
+                })
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    // 5. Live FIRING/RESOLVED events as Server-Sent Events (optionally for one job)
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Alert>> streamAlerts(@RequestParam(required = false) String jobId) {
+        return alertEngine.subscribe()
+                .filter(alert -> jobId == null || jobId.equals(alert.getJobId()))
+                .map(alert -> ServerSentEvent.builder(alert)
+                        .id(alert.getId())
+                        .event(alert.getState())
+                        .build());
+    }
+}
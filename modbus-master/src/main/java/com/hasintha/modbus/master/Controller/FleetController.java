@@ -0,0 +1,45 @@
+package com.hasintha.modbus.master.Controller;
+
+import com.hasintha.modbus.master.Service.FleetStateStore;
+import com.hasintha.modbus.master.dto.FleetSnapshotDto;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Fleet-wide view of the latest poll results, served from memory (no database access).
+ * Works on both the servlet and the "reactive" stack.
+ */
+@RestController
+@RequestMapping("/api/fleet")
+public class FleetController {
+
+    private final FleetStateStore fleetState;
+
+    public FleetController(FleetStateStore fleetState) {
+        this.fleetState = fleetState;
+    }
+
+    /**
+     * Latest status, timestamp and telemetry of every job (and unit).
+     *
+     * @param status Optional, only units whose latest execution has this status (e.g. ERROR_TIMEOUT)
+     * @param staleOlderThan Optional, only units not polled in the last N seconds (and jobs never polled)
+     * @param since Optional snapshot version; only jobs changed after it are returned
+     * @return Fleet snapshot with the version to pass as "since" next time
+     */
+    @GetMapping("/snapshot")
+    public ResponseEntity<FleetSnapshotDto> getSnapshot(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) Long staleOlderThan,
+            @RequestParam(required = false) Long since) {
+
+        if (staleOlderThan != null && staleOlderThan < 0) {
+            throw new IllegalArgumentException("staleOlderThan must be >= 0 seconds");
+        }
+        LocalDateTime staleBefore = staleOlderThan != null ? LocalDateTime.now().minusSeconds(staleOlderThan) : null;
+
+        return ResponseEntity.ok(fleetState.snapshot(status, staleBefore, since));
+    }
+}
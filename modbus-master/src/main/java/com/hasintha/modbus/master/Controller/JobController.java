@@ -1,26 +1,34 @@
 package com.hasintha.modbus.master.Controller;
 
 
+import com.hasintha.modbus.master.Model.ExportFormat;
 import com.hasintha.modbus.master.Model.Job;
-import com.hasintha.modbus.master.Model.JobExecution;
 import com.hasintha.modbus.master.Model.JobStopResult;
-import com.hasintha.modbus.master.Repository.JobExecutionRepository;
-import com.hasintha.modbus.master.Repository.JobRepository;
+import com.hasintha.modbus.master.Service.JobCache;
 import com.hasintha.modbus.master.Service.JobScheduler;
 import com.hasintha.modbus.master.Service.JobService;
-import com.hasintha.modbus.master.dto.JobResponseDto;
+import com.hasintha.modbus.master.Utils.AcceptEncoding;
+import com.hasintha.modbus.master.dto.JobRequestDto;
 import com.hasintha.modbus.master.dto.PagedJobExecutionResponseDto;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.HashMap;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/jobs")
+@Profile("!reactive") // ReactiveJobController serves the same API with the "reactive" profile
 public class JobController {
 
     // Pagination constants
@@ -28,46 +36,41 @@ public class JobController {
     private static final int DEFAULT_PAGE_SIZE = 20;
     private static final int DEFAULT_PAGE = 0;
 
+    // Export constants
+    private static final LocalDateTime EXPORT_RANGE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final int EXPORT_GZIP_BUFFER_SIZE = 8192;
+
     private final JobScheduler jobScheduler;
-    private final JobRepository jobRepository;
-    private final JobExecutionRepository executionRepository;
+    private final JobCache jobCache;
     private final JobService jobService;
 
 
 
-    public JobController(JobScheduler jobScheduler, JobExecutionRepository executionRepository, JobRepository jobRepository, JobService jobService) {
+    public JobController(JobScheduler jobScheduler, JobCache jobCache, JobService jobService) {
         this.jobScheduler = jobScheduler;
-        this.jobRepository = jobRepository;
-        this.executionRepository = executionRepository;
+        this.jobCache = jobCache;
         this.jobService = jobService;
     }
 
     // 1. Schedule a new job
     @PostMapping
-    public ResponseEntity<Job> createJob(@RequestBody Map<String, String> payload) {
-        String ip = payload.get("targetIp");
-        String cron = payload.get("cronExpression");
-        Job job = jobScheduler.scheduleNewJob(ip, cron);
+    public ResponseEntity<Job> createJob(@RequestBody JobRequestDto payload) {
+        Job job = jobScheduler.scheduleNewJob(payload);
         return ResponseEntity.ok(job);
     }
 
     //this will no longer used
     @GetMapping("v0/{jobId}")
-    public ResponseEntity<Map<String, Object>> getJob(@PathVariable String jobId) {
-        Map<String, Object> response = new HashMap<>();
-
+    public ResponseEntity<StreamingResponseBody> getJob(@PathVariable String jobId) {
         // Get Job Metadata
-        Job job = jobRepository.findById(jobId).orElse(null);
+        Job job = jobCache.findById(jobId).orElse(null);
         if (job == null) return ResponseEntity.notFound().build();
 
-        // Get Execution History
-        List<JobExecution> history = executionRepository.findByJobIdOrderByExecutionTimeDesc(jobId);
-
-        response.put("jobId", job.getId());
-        response.put("status", job.getStatus());
-        response.put("executions", history); // This matches the JSON structure in
-
-        return ResponseEntity.ok(response);
+        // Execution History is streamed from the database cursor instead of being loaded into a list
+        StreamingResponseBody body = out -> jobService.writeLegacyJobHistory(job, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     // 2. Get Job Details & History with Pagination
@@ -83,7 +86,8 @@ public class JobController {
     public ResponseEntity<PagedJobExecutionResponseDto> getJobv1(
             @PathVariable String jobId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(defaultValue = "20") int size,
+            WebRequest webRequest) {
 
         // Validation: Ensure page is non-negative
         if (page < 0) {
@@ -97,6 +101,11 @@ public class JobController {
             size = MAX_PAGE_SIZE;
         }
 
+        // Unchanged since the client's copy: 304 without touching the database
+        if (webRequest.checkNotModified(jobService.getJobDetailsETag(jobId, page, size))) {
+            return null;
+        }
+
         PagedJobExecutionResponseDto response = jobService.getJobDetailsWithPagination(
                 jobId, page, size
         );
@@ -104,10 +113,73 @@ public class JobController {
         return ResponseEntity.ok(response);
     }
 
-    // 3. List All Jobs
+    /**
+     * Export execution history of a job as NDJSON or CSV.
+     * Executions are streamed from a database cursor, so the export runs in constant memory
+     * regardless of the size of the range.
+     *
+     * @param jobId The job identifier
+     * @param from Optional inclusive start of the range (ISO date-time, default: no lower bound)
+     * @param to Optional exclusive end of the range (ISO date-time, default: now)
+     * @param format Optional output format, "ndjson" (default) or "csv"
+     * @param gzip Optional, compress the response even if the client did not send Accept-Encoding: gzip
+     * @return Streaming response body with the exported executions, oldest first
+     */
+    @GetMapping("/{jobId}/executions/export")
+    public ResponseEntity<StreamingResponseBody> exportExecutions(
+            @PathVariable String jobId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+
+        // Validation: Fill in open range bounds
+        LocalDateTime rangeFrom = from != null ? from : EXPORT_RANGE_START;
+        LocalDateTime rangeTo = to != null ? to : LocalDateTime.now();
+        if (!rangeFrom.isBefore(rangeTo)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        // Fail with 404 before the response is committed
+        jobService.getJob(jobId);
+
+        boolean compress = gzip || AcceptEncoding.acceptsGzip(acceptEncoding);
+
+        StreamingResponseBody body = out -> {
+            if (compress) {
+                // syncFlush so every chunk flushed by the service reaches the client
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, EXPORT_GZIP_BUFFER_SIZE, true);
+                jobService.exportExecutions(jobId, rangeFrom, rangeTo, exportFormat, gzipOut);
+                gzipOut.finish();
+                gzipOut.flush();
+            } else {
+                jobService.exportExecutions(jobId, rangeFrom, rangeTo, exportFormat, out);
+            }
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("job-" + jobId + "-executions." + exportFormat.getFileExtension())
+                        .build()
+                        .toString())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (compress) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    // 3. List All Jobs (304 Not Modified if the client's ETag is still current)
     @GetMapping
-    public List<Job> getAllJobs() {
-        return jobService.getAllJobs();
+    public ResponseEntity<List<Job>> getAllJobs(WebRequest webRequest) {
+        if (webRequest.checkNotModified(jobService.getJobsETag())) {
+            return null;
+        }
+        return ResponseEntity.ok(jobService.getAllJobs());
     }
 
     // 4. Stop a Job
@@ -119,11 +191,8 @@ public class JobController {
 
     // 5. Update a Job
     @PatchMapping("/{jobId}")
-    public ResponseEntity<Job> updateJob(@PathVariable String jobId, @RequestBody Map<String, String> payload) {
-        String targetIp = payload.get("targetIp");
-        String cronExpression = payload.get("cronExpression");
-
-        Job updatedJob = jobService.updateJob(jobId, targetIp, cronExpression);
+    public ResponseEntity<Job> updateJob(@PathVariable String jobId, @RequestBody JobRequestDto payload) {
+        Job updatedJob = jobService.updateJob(jobId, payload);
         return ResponseEntity.ok(updatedJob);
     }
 
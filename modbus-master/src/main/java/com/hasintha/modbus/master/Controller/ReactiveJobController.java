@@ -0,0 +1,156 @@
+package com.hasintha.modbus.master.Controller;
+
+
+import com.hasintha.modbus.master.Model.ExportFormat;
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Service.ReactiveJobService;
+import com.hasintha.modbus.master.Utils.AcceptEncoding;
+import com.hasintha.modbus.master.dto.JobRequestDto;
+import com.hasintha.modbus.master.dto.PagedJobExecutionResponseDto;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * WebFlux version of {@link JobController}, active with the "reactive" profile.
+ * Same paths, parameters, status codes and response bodies; requests never block an event loop
+ * thread on Mongo.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@Profile("reactive")
+public class ReactiveJobController {
+
+    // Pagination constants
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int DEFAULT_PAGE = 0;
+
+    // Export constants
+    private static final LocalDateTime EXPORT_RANGE_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final ReactiveJobService jobService;
+
+    public ReactiveJobController(ReactiveJobService jobService) {
+        this.jobService = jobService;
+    }
+
+    // 1. Schedule a new job
+    @PostMapping
+    public Mono<ResponseEntity<Job>> createJob(@RequestBody JobRequestDto payload) {
+        return jobService.createJob(payload).map(ResponseEntity::ok);
+    }
+
+    //this will no longer used
+    @GetMapping("v0/{jobId}")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> getJob(@PathVariable String jobId) {
+        return jobService.findJob(jobId)
+                .map(job -> ResponseEntity.ok()
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .body(toDataBuffers(jobService.legacyJobHistory(job))))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    // 2. Get Job Details & History with Pagination
+    @GetMapping("/{jobId}")
+    public Mono<ResponseEntity<PagedJobExecutionResponseDto>> getJobv1(
+            @PathVariable String jobId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            ServerWebExchange exchange) {
+
+        // Validation: Ensure page is non-negative
+        if (page < 0) {
+            page = DEFAULT_PAGE;
+        }
+
+        // Validation: Ensure size is within allowed range
+        if (size <= 0) {
+            size = DEFAULT_PAGE_SIZE;
+        } else if (size > MAX_PAGE_SIZE) {
+            size = MAX_PAGE_SIZE;
+        }
+
+        // Unchanged since the client's copy: 304 without touching the database
+        if (exchange.checkNotModified(jobService.getJobDetailsETag(jobId, page, size))) {
+            return Mono.empty();
+        }
+
+        return jobService.getJobDetailsWithPagination(jobId, page, size).map(ResponseEntity::ok);
+    }
+
+    // Export execution history as NDJSON or CSV (see JobController#exportExecutions)
+    @GetMapping("/{jobId}/executions/export")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> exportExecutions(
+            @PathVariable String jobId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        ExportFormat exportFormat = ExportFormat.fromValue(format);
+
+        // Validation: Fill in open range bounds
+        LocalDateTime rangeFrom = from != null ? from : EXPORT_RANGE_START;
+        LocalDateTime rangeTo = to != null ? to : LocalDateTime.now();
+        if (!rangeFrom.isBefore(rangeTo)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+
+        boolean compress = gzip || AcceptEncoding.acceptsGzip(acceptEncoding);
+
+        // Fail with 404 before the response is committed
+        return jobService.getJob(jobId).map(job -> {
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                    .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                            .filename("job-" + jobId + "-executions." + exportFormat.getFileExtension())
+                            .build()
+                            .toString())
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (compress) {
+                response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            return response.body(toDataBuffers(
+                    jobService.exportExecutions(jobId, rangeFrom, rangeTo, exportFormat, compress)));
+        });
+    }
+
+    // 3. List All Jobs (304 Not Modified if the client's ETag is still current)
+    @GetMapping
+    public Mono<ResponseEntity<List<Job>>> getAllJobs(ServerWebExchange exchange) {
+        if (exchange.checkNotModified(jobService.getJobsETag())) {
+            return Mono.empty();
+        }
+        return jobService.getAllJobs().map(ResponseEntity::ok);
+    }
+
+    // 4. Stop a Job
+    @DeleteMapping("/{jobId}")
+    public Mono<ResponseEntity<Void>> stopJob(@PathVariable String jobId) {
+        return jobService.stopJob(jobId).then(Mono.fromSupplier(() -> ResponseEntity.ok().<Void>build()));
+    }
+
+    // 5. Update a Job
+    @PatchMapping("/{jobId}")
+    public Mono<ResponseEntity<Job>> updateJob(@PathVariable String jobId, @RequestBody JobRequestDto payload) {
+        return jobService.updateJob(jobId, payload).map(ResponseEntity::ok);
+    }
+
+    private static Flux<DataBuffer> toDataBuffers(Flux<byte[]> chunks) {
+        return chunks.map(DefaultDataBufferFactory.sharedInstance::wrap);
+    }
+}
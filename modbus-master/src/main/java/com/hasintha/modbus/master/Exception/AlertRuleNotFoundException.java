@@ -0,0 +1,9 @@
+package com.hasintha.modbus.master.Exception;
+
+public class AlertRuleNotFoundException extends RuntimeException {
+
+    public AlertRuleNotFoundException(String ruleId) {
+        super("Alert rule not found with ID: " + ruleId);
+    }
+
+}
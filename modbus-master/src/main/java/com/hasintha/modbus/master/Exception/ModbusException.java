@@ -0,0 +1,11 @@
+package com.hasintha.modbus.master.Exception;
+
+/**
+ * Thrown when a slave answers with a Modbus exception response or a malformed frame.
+ */
+public class ModbusException extends Exception {
+
+    public ModbusException(String message) {
+        super(message);
+    }
+}
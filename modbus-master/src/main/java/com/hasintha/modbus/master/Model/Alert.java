@@ -0,0 +1,22 @@
+package com.hasintha.modbus.master.Model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import java.time.LocalDateTime;
+
+@Data
+@Document(collection = "alerts")
+public class Alert {
+    @Id
+    private String id;
+
+    private String ruleId;
+    private String ruleName;
+    private String jobId;
+    private Integer unitId;
+    private String state; // "FIRING" or "RESOLVED"
+    private double value; // evaluated value (aggregate, rate or consecutive count) at the transition
+    private String message;
+    private LocalDateTime timestamp;
+}
@@ -0,0 +1,54 @@
+package com.hasintha.modbus.master.Model;
+
+import lombok.Data;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * A rule evaluated by the alert engine against every poll result.
+ *
+ * Examples:
+ * - cpu > 90 for 5 minutes: THRESHOLD, metric CPU, aggregation MIN, operator GT, threshold 90, windowSeconds 300
+ * - disk grows more than 1%/hour: RATE_OF_CHANGE, metric DISK, operator GT, threshold 1, windowSeconds 3600
+ * - 3 timeouts in a row: CONSECUTIVE_STATUS, status ERROR_TIMEOUT, count 3
+ */
+@Data
+@Document(collection = "alert_rules")
+public class AlertRule {
+    @Id
+    private String id;
+
+    private String name;
+    private String jobId; // null = applies to every job
+    private Type type;
+
+    // THRESHOLD and RATE_OF_CHANGE
+    private Metric metric;
+    private Operator operator;
+    private double threshold;
+    private Aggregation aggregation; // THRESHOLD only, default LAST
+    private int windowSeconds;       // window for MIN/MAX/MEAN and RATE_OF_CHANGE
+    private double ewmaAlpha;        // smoothing factor for EWMA (0-1]
+
+    // CONSECUTIVE_STATUS
+    private String status;
+    private int count;
+
+    public enum Type {
+        THRESHOLD,          // aggregate of a metric compared to a threshold
+        RATE_OF_CHANGE,     // change per hour of a metric over the window compared to a threshold
+        CONSECUTIVE_STATUS  // N executions in a row with the given status
+    }
+
+    public enum Metric {
+        CPU, RAM, DISK
+    }
+
+    public enum Aggregation {
+        LAST, EWMA, MIN, MAX, MEAN
+    }
+
+    public enum Operator {
+        GT, LT
+    }
+}
@@ -0,0 +1,38 @@
+package com.hasintha.modbus.master.Model;
+
+/**
+ * Output formats supported by the execution history export endpoint.
+ */
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    /**
+     * Case-insensitive lookup used for the {@code format} query parameter.
+     * @throws IllegalArgumentException if the value is not a supported format
+     */
+    public static ExportFormat fromValue(String value) {
+        for (ExportFormat format : values()) {
+            if (format.name().equalsIgnoreCase(value.trim())) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported export format: " + value + " (expected ndjson or csv)");
+    }
+}
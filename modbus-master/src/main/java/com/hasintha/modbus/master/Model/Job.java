@@ -4,6 +4,7 @@ import lombok.Data;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @Data
 @Document(collection = "jobs")
@@ -13,6 +14,21 @@ public class Job {
 
     private String targetIp;
     private String cronExpression;
+    private List<Integer> unitIds; // Modbus unit ids polled behind targetIp (a gateway); null = unit 1
+    private Integer busBaudRate; // Serial bus rate behind the gateway, paces requests; null = no pacing
+    private PersistencePolicy persistencePolicy; // null = store every execution
     private String status; // "RUNNING" or "STOPPED"
     private LocalDateTime createdAt;
+
+    /**
+     * Controls which executions are written to the database. An execution is stored when its status
+     * differs from the last stored one, when cpu/ram/disk moved beyond a deadband, or when the heartbeat
+     * interval has passed since the last stored execution. All other polls are held (not stored).
+     */
+    @Data
+    public static class PersistencePolicy {
+        private Double deadbandAbsolute;  // percentage points, e.g. 0.5; null = 0
+        private Double deadbandPercent;   // relative to the last stored value, e.g. 2.0 (%); null = 0
+        private Integer heartbeatSeconds; // max time between stored executions; null = no heartbeat
+    }
 }
\ No newline at end of file
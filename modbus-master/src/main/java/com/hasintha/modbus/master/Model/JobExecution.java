@@ -2,11 +2,19 @@ package com.hasintha.modbus.master.Model;
 
 import lombok.Data;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 import java.time.LocalDateTime;
 
 @Data
 @Document(collection = "job_executions")
+@CompoundIndexes({
+        // History, paging and range exports: filter by job, ordered by time (no in-memory sort)
+        @CompoundIndex(name = "jobId_executionTime", def = "{'jobId': 1, 'executionTime': -1}"),
+        // Latest execution per unit (fleet snapshot seed)
+        @CompoundIndex(name = "jobId_unitId_executionTime", def = "{'jobId': 1, 'unitId': 1, 'executionTime': -1}")
+})
 public class JobExecution {
 
     @Id
@@ -14,9 +22,14 @@ public class JobExecution {
 
     private  String jobId;
     private String targetIp;
+    private Integer unitId; // Modbus unit id this sample was read from (null for executions before multi-unit jobs)
     private LocalDateTime executionTime;
     private String status;
 
+    // Set when the job has a persistence policy (null otherwise):
+    private String sampleType;   // "MEASURED" (value/status changed) or "HEARTBEAT" (stored only because the heartbeat interval passed)
+    private Integer heldSamples; // polls since the previous stored execution that were within the deadband and not stored
+
     private Telemetry telemetry;
 
     @Data
@@ -0,0 +1,16 @@
+package com.hasintha.modbus.master.Repository;
+
+import com.hasintha.modbus.master.Model.Alert;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AlertRepository extends MongoRepository<Alert, String> {
+
+    // Alert history, newest first
+    Page<Alert> findAllByOrderByTimestampDesc(Pageable pageable);
+
+    Page<Alert> findByJobIdOrderByTimestampDesc(String jobId, Pageable pageable);
+}
@@ -0,0 +1,9 @@
+package com.hasintha.modbus.master.Repository;
+
+import com.hasintha.modbus.master.Model.AlertRule;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AlertRuleRepository extends MongoRepository<AlertRule, String> {
+}
@@ -3,17 +3,35 @@ package com.hasintha.modbus.master.Repository;
 import com.hasintha.modbus.master.Model.JobExecution;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.List;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
 
 @Repository
 public interface JobExecutionRepository extends MongoRepository<JobExecution, String> {
 
-    // Custom query: Find all executions for a specific Job ID, sorted by newest first
-    // This is what the UI will call to draw the chart.
-    List<JobExecution> findByJobIdOrderByExecutionTimeDesc(String jobId);
+    // Cursor size used by the streaming queries below, so the driver never buffers more than one batch
+    int STREAM_BATCH_SIZE = 500;
+
+    // Streams all executions for a specific Job ID, newest first, straight from a Mongo cursor.
+    // The caller must close the stream (try-with-resources) to release the cursor.
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    Stream<JobExecution> streamByJobIdOrderByExecutionTimeDesc(String jobId);
+
+    // Streams executions for a Job ID in [from, to), oldest first. Used by the export endpoint.
+    @Meta(cursorBatchSize = STREAM_BATCH_SIZE)
+    @Query(value = "{ 'jobId': ?0, 'executionTime': { $gte: ?1, $lt: ?2 } }", sort = "{ 'executionTime': 1 }")
+    Stream<JobExecution> streamByJobIdAndExecutionTimeRange(String jobId, LocalDateTime from, LocalDateTime to);
+
+    // Latest execution of a job, and of one unit of a job, other than the given status
+    // (used to seed the fleet snapshot at startup, ignoring skipped polls)
+    JobExecution findFirstByJobIdAndStatusNotOrderByExecutionTimeDesc(String jobId, String status);
+
+    JobExecution findFirstByJobIdAndUnitIdAndStatusNotOrderByExecutionTimeDesc(String jobId, Integer unitId, String status);
 
     // Paginated query: Find executions for a specific Job ID with pagination support
     Page<JobExecution> findByJobIdOrderByExecutionTimeDesc(String jobId, Pageable pageable);
@@ -0,0 +1,32 @@
+package com.hasintha.modbus.master.Repository;
+
+import com.hasintha.modbus.master.Model.JobExecution;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Meta;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+// Non-blocking counterpart of JobExecutionRepository, used by the "reactive" profile.
+// Flux results are read from the cursor on demand, so slow clients apply backpressure to Mongo.
+@Repository
+public interface ReactiveJobExecutionRepository extends ReactiveMongoRepository<JobExecution, String> {
+
+    // All executions for a specific Job ID, newest first
+    @Meta(cursorBatchSize = JobExecutionRepository.STREAM_BATCH_SIZE)
+    Flux<JobExecution> findByJobIdOrderByExecutionTimeDesc(String jobId);
+
+    // Executions for a Job ID in [from, to), oldest first. Used by the export endpoint.
+    @Meta(cursorBatchSize = JobExecutionRepository.STREAM_BATCH_SIZE)
+    @Query(value = "{ 'jobId': ?0, 'executionTime': { $gte: ?1, $lt: ?2 } }", sort = "{ 'executionTime': 1 }")
+    Flux<JobExecution> findByJobIdAndExecutionTimeRange(String jobId, LocalDateTime from, LocalDateTime to);
+
+    // One page of executions for a specific Job ID (reactive repositories can't return Page)
+    Flux<JobExecution> findByJobIdOrderByExecutionTimeDesc(String jobId, Pageable pageable);
+
+    Mono<Long> countByJobId(String jobId);
+}
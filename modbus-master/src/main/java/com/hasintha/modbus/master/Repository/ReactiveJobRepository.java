@@ -0,0 +1,10 @@
+package com.hasintha.modbus.master.Repository;
+
+import com.hasintha.modbus.master.Model.Job;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+// Non-blocking counterpart of JobRepository, used by the "reactive" profile
+@Repository
+public interface ReactiveJobRepository extends ReactiveMongoRepository<Job, String> {
+}
@@ -0,0 +1,421 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Exception.AlertRuleNotFoundException;
+import com.hasintha.modbus.master.Model.Alert;
+import com.hasintha.modbus.master.Model.AlertRule;
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import com.hasintha.modbus.master.Repository.AlertRepository;
+import com.hasintha.modbus.master.Repository.AlertRuleRepository;
+import com.hasintha.modbus.master.Utils.SlidingWindow;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process rule engine evaluated at ingest: JobScheduler.executePoll hands every execution
+ * to {@link #onExecution} before it is stored (held and unstored executions included).
+ *
+ * State is kept per series (job + unit) and per rule: an EWMA, a primitive {@link SlidingWindow}
+ * and a consecutive-status counter, all updated in O(1) without allocating. Only a FIRING/RESOLVED
+ * transition allocates; the resulting {@link Alert} is published to subscribers and saved to Mongo
+ * on a separate writer thread, so a slow or unreachable database never holds up a poll.
+ */
+@Service
+public class AlertEngine {
+
+    // Delay between attempts to load the rules while Mongo is unreachable
+    private static final long RULE_LOAD_RETRY_SECONDS = 30;
+
+    private final AlertRuleRepository ruleRepository;
+    private final AlertRepository alertRepository;
+    private final int maxWindowCapacity;
+
+    // Immutable snapshot, replaced on every rule change (copy-on-write)
+    private volatile RuleSet ruleSet = new RuleSet(new AlertRule[0], 0);
+    private boolean rulesLoaded = false;  // guarded by this
+    private boolean retryPending = false; // guarded by this
+
+    // jobId -> unit id -> series state; a job's entries are dropped when it is stopped
+    private final Map<String, Map<Integer, SeriesState>> seriesByJob = new ConcurrentHashMap<>();
+
+    private final Sinks.Many<Alert> alertSink = Sinks.many().multicast().directBestEffort();
+
+    // Saves alerts in the order they were raised
+    private final Executor alertWriter;
+
+    @Autowired
+    public AlertEngine(AlertRuleRepository ruleRepository, AlertRepository alertRepository,
+                       @Value("${alerts.window.max-samples:4096}") int maxWindowCapacity) {
+        this(ruleRepository, alertRepository, maxWindowCapacity, newAlertWriter());
+    }
+
+    AlertEngine(AlertRuleRepository ruleRepository, AlertRepository alertRepository,
+                int maxWindowCapacity, Executor alertWriter) {
+        this.ruleRepository = ruleRepository;
+        this.alertRepository = alertRepository;
+        this.maxWindowCapacity = maxWindowCapacity;
+        this.alertWriter = alertWriter;
+    }
+
+    private static ThreadPoolTaskExecutor newAlertWriter() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setThreadNamePrefix("alert-writer-");
+        // Store the alerts already raised before shutting down
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(10);
+        executor.initialize();
+        return executor;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (alertWriter instanceof ThreadPoolTaskExecutor executor) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Loads the stored rules once the application is up. Mongo may not be reachable yet, so a failed
+     * load is retried in the background instead of failing startup; no rule fires until then.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadRules() {
+        if (rulesLoaded) {
+            return;
+        }
+        try {
+            replaceRules(ruleRepository.findAll());
+            rulesLoaded = true;
+        } catch (Exception e) {
+            System.err.println("Could not load alert rules, retrying in " + RULE_LOAD_RETRY_SECONDS + "s: " + e.getMessage());
+            if (!retryPending) {
+                retryPending = true;
+                CompletableFuture.runAsync(this::retryLoadRules,
+                        CompletableFuture.delayedExecutor(RULE_LOAD_RETRY_SECONDS, TimeUnit.SECONDS));
+            }
+        }
+    }
+
+    private synchronized void retryLoadRules() {
+        retryPending = false;
+        loadRules();
+    }
+
+    public List<AlertRule> getRules() {
+        return List.of(ruleSet.rules);
+    }
+
+    public synchronized AlertRule addRule(AlertRule rule) {
+        validate(rule);
+        loadRules(); // Don't drop the stored rules if the startup load hasn't succeeded yet
+        rule.setId(null);
+        AlertRule saved = ruleRepository.save(rule);
+        List<AlertRule> rules = new ArrayList<>(List.of(ruleSet.rules));
+        rules.add(saved);
+        replaceRules(rules);
+        return saved;
+    }
+
+    public synchronized void deleteRule(String ruleId) {
+        if (!ruleRepository.existsById(ruleId)) {
+            throw new AlertRuleNotFoundException(ruleId);
+        }
+        ruleRepository.deleteById(ruleId);
+        replaceRules(List.of(ruleSet.rules).stream().filter(r -> !r.getId().equals(ruleId)).toList());
+    }
+
+    /**
+     * Live FIRING/RESOLVED events. Subscribers that can't keep up miss events (they remain in Mongo).
+     */
+    public Flux<Alert> subscribe() {
+        return alertSink.asFlux();
+    }
+
+    /**
+     * Drops the evaluation state of a stopped job. A restarted job starts with fresh windows.
+     */
+    public void forget(String jobId) {
+        seriesByJob.remove(jobId);
+    }
+
+    /**
+     * Evaluates every applicable rule against one poll result of the given job.
+     */
+    public void onExecution(Job job, JobExecution execution) {
+        RuleSet current = ruleSet;
+        if (current.rules.length == 0) {
+            return;
+        }
+        SeriesState series = seriesFor(job, execution.getUnitId());
+        long now = System.currentTimeMillis();
+
+        synchronized (series) {
+            if (series.version != current.version) {
+                series.rebuild(current, job.getId(), maxWindowCapacity);
+            }
+            JobExecution.Telemetry t = execution.getTelemetry();
+            for (int i = 0; i < current.rules.length; i++) {
+                AlertRule rule = current.rules[i];
+                RuleState state = series.states[i];
+                if (state == null) {
+                    continue; // Rule targets another job
+                }
+                try {
+                    double value = evaluate(rule, state, execution.getStatus(), t, now);
+                    if (Double.isNaN(value)) {
+                        continue; // No verdict from this sample (no telemetry, or window not covered yet)
+                    }
+                    boolean active = rule.getType() == AlertRule.Type.CONSECUTIVE_STATUS
+                            ? value >= rule.getCount()
+                            : compare(rule.getOperator(), value, rule.getThreshold());
+                    if (active != state.firing) {
+                        emit(rule, execution, active, value);
+                        // Only once the alert was handed off; otherwise the next sample raises it again
+                        state.firing = active;
+                    }
+                } catch (Exception e) {
+                    // One failing rule must not keep the others from seeing the sample
+                    System.err.println("Alert rule " + rule.getId() + " failed for job " + job.getId() + ": " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    // Returns the value to compare for this rule, or NaN if this sample gives no verdict
+    private static double evaluate(AlertRule rule, RuleState state, String status,
+                                   JobExecution.Telemetry t, long now) {
+        if (rule.getType() == AlertRule.Type.CONSECUTIVE_STATUS) {
+            state.consecutive = rule.getStatus().equals(status) ? state.consecutive + 1 : 0;
+            return state.consecutive;
+        }
+        if (t == null) {
+            return Double.NaN;
+        }
+        double sample = metric(rule.getMetric(), t);
+
+        if (rule.getType() == AlertRule.Type.RATE_OF_CHANGE) {
+            state.window.add(now, sample);
+            // A rate over a few seconds of samples (e.g. right after startup or an outage) is mostly noise
+            return state.window.isFull() ? state.window.ratePerHour() : Double.NaN;
+        }
+
+        AlertRule.Aggregation aggregation = rule.getAggregation() != null ? rule.getAggregation() : AlertRule.Aggregation.LAST;
+        switch (aggregation) {
+            case EWMA:
+                state.ewma = state.hasEwma ? state.ewma + rule.getEwmaAlpha() * (sample - state.ewma) : sample;
+                state.hasEwma = true;
+                return state.ewma;
+            case MIN:
+            case MAX:
+            case MEAN:
+                state.window.add(now, sample);
+                // "for N minutes" only holds once the samples span the whole window
+                if (!state.window.isFull()) {
+                    return Double.NaN;
+                }
+                return aggregation == AlertRule.Aggregation.MIN ? state.window.min()
+                        : aggregation == AlertRule.Aggregation.MAX ? state.window.max()
+                        : state.window.mean();
+            default:
+                return sample;
+        }
+    }
+
+    private static double metric(AlertRule.Metric metric, JobExecution.Telemetry t) {
+        switch (metric) {
+            case CPU: return t.getCpu();
+            case RAM: return t.getRam();
+            default: return t.getDisk();
+        }
+    }
+
+    private static boolean compare(AlertRule.Operator operator, double value, double threshold) {
+        return operator == AlertRule.Operator.LT ? value < threshold : value > threshold;
+    }
+
+    private void emit(AlertRule rule, JobExecution execution, boolean firing, double value) {
+        Alert alert = new Alert();
+        // Assigned here so live subscribers see the id the alert is stored under
+        alert.setId(UUID.randomUUID().toString());
+        alert.setRuleId(rule.getId());
+        alert.setRuleName(rule.getName());
+        alert.setJobId(execution.getJobId());
+        alert.setUnitId(execution.getUnitId());
+        alert.setState(firing ? "FIRING" : "RESOLVED");
+        alert.setValue(value);
+        alert.setTimestamp(LocalDateTime.now());
+        alert.setMessage(describe(rule) + (firing ? " (value " : " cleared (value ") + value + ")");
+
+        synchronized (alertSink) {
+            alertSink.tryEmitNext(alert);
+        }
+        alertWriter.execute(() -> save(alert));
+        System.out.println("Alert " + alert.getState() + ": " + alert.getMessage() + " for job " + alert.getJobId());
+    }
+
+    private void save(Alert alert) {
+        try {
+            alertRepository.save(alert);
+        } catch (Exception e) {
+            // The transition was already published; only the history misses it
+            System.err.println("Could not store alert " + alert.getState() + " (" + alert.getMessage() + ") for job "
+                    + alert.getJobId() + ": " + e.getMessage());
+        }
+    }
+
+    private static String describe(AlertRule rule) {
+        String name = rule.getName() != null ? rule.getName() + ": " : "";
+        switch (rule.getType()) {
+            case CONSECUTIVE_STATUS:
+                return name + rule.getCount() + " consecutive " + rule.getStatus();
+            case RATE_OF_CHANGE:
+                return name + rule.getMetric() + " rate/h " + rule.getOperator() + " " + rule.getThreshold();
+            default:
+                AlertRule.Aggregation aggregation = rule.getAggregation() != null ? rule.getAggregation() : AlertRule.Aggregation.LAST;
+                return name + aggregation + "(" + rule.getMetric() + ") " + rule.getOperator() + " " + rule.getThreshold();
+        }
+    }
+
+    private SeriesState seriesFor(Job job, Integer unitId) {
+        Integer unit = unitId != null ? unitId : JobScheduler.DEFAULT_UNIT_ID;
+        return seriesByJob.computeIfAbsent(job.getId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(unit, id -> new SeriesState(pollIntervalMillis(job.getCronExpression())));
+    }
+
+    // Shortest gap between the next few runs of a cron schedule (0 if it can't be parsed)
+    static long pollIntervalMillis(String cron) {
+        try {
+            CronExpression expression = CronExpression.parse(cron);
+            LocalDateTime previous = expression.next(LocalDateTime.now());
+            long shortest = Long.MAX_VALUE;
+            for (int i = 0; i < 8 && previous != null; i++) {
+                LocalDateTime next = expression.next(previous);
+                if (next != null) {
+                    shortest = Math.min(shortest, Duration.between(previous, next).toMillis());
+                }
+                previous = next;
+            }
+            return shortest == Long.MAX_VALUE ? 0 : shortest;
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+    }
+
+    // Ring size for a window: the samples one window holds at the job's poll rate (plus slack), capped
+    static int windowCapacity(long windowMillis, long pollIntervalMillis, int maxCapacity) {
+        if (pollIntervalMillis <= 0) {
+            return maxCapacity;
+        }
+        long samples = windowMillis / pollIntervalMillis + 2;
+        return (int) Math.min(samples, maxCapacity);
+    }
+
+    private static boolean usesWindow(AlertRule rule) {
+        return rule.getType() == AlertRule.Type.RATE_OF_CHANGE
+                || (rule.getType() == AlertRule.Type.THRESHOLD
+                    && (rule.getAggregation() == AlertRule.Aggregation.MIN
+                        || rule.getAggregation() == AlertRule.Aggregation.MAX
+                        || rule.getAggregation() == AlertRule.Aggregation.MEAN));
+    }
+
+    private void replaceRules(List<AlertRule> rules) {
+        ruleSet = new RuleSet(rules.toArray(new AlertRule[0]), ruleSet.version + 1);
+    }
+
+    private static void validate(AlertRule rule) {
+        if (rule.getType() == null) {
+            throw new IllegalArgumentException("Alert rule type is required");
+        }
+        if (rule.getType() == AlertRule.Type.CONSECUTIVE_STATUS) {
+            if (rule.getStatus() == null || rule.getCount() <= 0) {
+                throw new IllegalArgumentException("CONSECUTIVE_STATUS rules need a status and a count > 0");
+            }
+            return;
+        }
+        if (rule.getMetric() == null || rule.getOperator() == null) {
+            throw new IllegalArgumentException(rule.getType() + " rules need a metric and an operator");
+        }
+        if (usesWindow(rule) && rule.getWindowSeconds() <= 0) {
+            throw new IllegalArgumentException("windowSeconds must be > 0 for " + rule.getType() + "/" + rule.getAggregation() + " rules");
+        }
+        if (rule.getAggregation() == AlertRule.Aggregation.EWMA && (rule.getEwmaAlpha() <= 0 || rule.getEwmaAlpha() > 1)) {
+            throw new IllegalArgumentException("ewmaAlpha must be in (0, 1]");
+        }
+    }
+
+    private record RuleSet(AlertRule[] rules, long version) {}
+
+    // Evaluation state of all rules for one job + unit; guarded by its own monitor
+    private static final class SeriesState {
+        final long pollIntervalMillis;
+        long version = -1;
+        RuleState[] states = new RuleState[0]; // null for rules that target another job
+        String[] ruleIds = new String[0];
+
+        SeriesState(long pollIntervalMillis) {
+            this.pollIntervalMillis = pollIntervalMillis;
+        }
+
+        // Called when the rules changed: keeps the state of rules that still exist
+        void rebuild(RuleSet ruleSet, String jobId, int maxWindowCapacity) {
+            Map<String, RuleState> previous = new HashMap<>();
+            for (int i = 0; i < states.length; i++) {
+                previous.put(ruleIds[i], states[i]);
+            }
+            RuleState[] next = new RuleState[ruleSet.rules.length];
+            String[] nextIds = new String[ruleSet.rules.length];
+            for (int i = 0; i < next.length; i++) {
+                AlertRule rule = ruleSet.rules[i];
+                nextIds[i] = rule.getId();
+                if (rule.getJobId() != null && !rule.getJobId().equals(jobId)) {
+                    continue;
+                }
+                RuleState state = previous.get(rule.getId());
+                if (state == null) {
+                    state = new RuleState(usesWindow(rule)
+                            ? new SlidingWindow(rule.getWindowSeconds() * 1000L,
+                                    windowCapacity(rule.getWindowSeconds() * 1000L, pollIntervalMillis, maxWindowCapacity))
+                            : null);
+                }
+                next[i] = state;
+            }
+            states = next;
+            ruleIds = nextIds;
+            version = ruleSet.version;
+        }
+    }
+
+    private static final class RuleState {
+        final SlidingWindow window; // null for rules that don't need one
+        double ewma;
+        boolean hasEwma;
+        int consecutive;
+        boolean firing;
+
+        RuleState(SlidingWindow window) {
+            this.window = window;
+        }
+    }
+}
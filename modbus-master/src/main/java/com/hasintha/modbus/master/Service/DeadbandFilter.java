@@ -0,0 +1,120 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which poll results of a job with a {@link Job.PersistencePolicy} are written to the database.
+ *
+ * Keeps the last stored execution per job + unit. A new execution is stored when
+ * - it is the first one since startup (or since the policy was set),
+ * - its status differs from the last stored one,
+ * - cpu, ram or disk moved beyond the deadband (if both deadbands are set, beyond both),
+ * - or the heartbeat interval has passed since the last stored execution.
+ * Everything else is held: it still reaches the fleet snapshot and the alert engine, but not Mongo.
+ */
+@Component
+public class DeadbandFilter {
+
+    public static final String MEASURED = "MEASURED";
+    public static final String HEARTBEAT = "HEARTBEAT";
+
+    // jobId -> unitId -> last stored sample
+    private final Map<String, Map<Integer, LastStored>> lastStored = new ConcurrentHashMap<>();
+
+    /**
+     * Returns true if the execution should be stored, and sets its sampleType and heldSamples.
+     * Jobs without a policy store every execution. Does not change any state: report the outcome
+     * with {@link #commit} once the write succeeded or failed.
+     */
+    public boolean shouldStore(Job job, JobExecution execution, long nowMillis) {
+        Job.PersistencePolicy policy = job.getPersistencePolicy();
+        if (policy == null) {
+            return true;
+        }
+
+        LastStored last = lastStored(job.getId(), execution);
+        String sampleType;
+        if (last == null || !last.status.equals(execution.getStatus())
+                || changed(policy, last.telemetry, execution.getTelemetry())) {
+            sampleType = MEASURED;
+        } else if (policy.getHeartbeatSeconds() != null
+                && nowMillis - last.storedAtMillis >= policy.getHeartbeatSeconds() * 1000L) {
+            sampleType = HEARTBEAT;
+        } else {
+            return false;
+        }
+
+        execution.setSampleType(sampleType);
+        execution.setHeldSamples(last != null ? last.held : 0);
+        return true;
+    }
+
+    /**
+     * Records the outcome for an execution: stored executions become the new reference,
+     * anything else (held, or a failed write) counts as held.
+     */
+    public void commit(Job job, JobExecution execution, boolean stored, long nowMillis) {
+        if (job.getPersistencePolicy() == null) {
+            lastStored.remove(job.getId());
+            return;
+        }
+        if (stored) {
+            lastStored.computeIfAbsent(job.getId(), id -> new ConcurrentHashMap<>())
+                    .put(unitIdOf(execution), new LastStored(execution.getStatus(), execution.getTelemetry(), nowMillis));
+            return;
+        }
+        LastStored last = lastStored(job.getId(), execution);
+        if (last != null) {
+            last.held++;
+        }
+    }
+
+    // Drops the state of a stopped job
+    public void forget(String jobId) {
+        lastStored.remove(jobId);
+    }
+
+    private LastStored lastStored(String jobId, JobExecution execution) {
+        Map<Integer, LastStored> units = lastStored.get(jobId);
+        return units != null ? units.get(unitIdOf(execution)) : null;
+    }
+
+    private static Integer unitIdOf(JobExecution execution) {
+        return execution.getUnitId() != null ? execution.getUnitId() : JobScheduler.DEFAULT_UNIT_ID;
+    }
+
+    private static boolean changed(Job.PersistencePolicy policy, JobExecution.Telemetry last, JobExecution.Telemetry current) {
+        if (last == null || current == null) {
+            // Same status without telemetry on one side only doesn't happen; treat it as a change to be safe
+            return last != current;
+        }
+        return beyond(policy, last.getCpu(), current.getCpu())
+                || beyond(policy, last.getRam(), current.getRam())
+                || beyond(policy, last.getDisk(), current.getDisk());
+    }
+
+    private static boolean beyond(Job.PersistencePolicy policy, double last, double current) {
+        double delta = Math.abs(current - last);
+        double absolute = policy.getDeadbandAbsolute() != null ? policy.getDeadbandAbsolute() : 0;
+        double percent = policy.getDeadbandPercent() != null ? Math.abs(last) * policy.getDeadbandPercent() / 100 : 0;
+        return delta > Math.max(absolute, percent);
+    }
+
+    private static final class LastStored {
+        final String status;
+        final JobExecution.Telemetry telemetry;
+        final long storedAtMillis;
+        int held; // executions held (or not written) since this one was stored
+
+        LastStored(String status, JobExecution.Telemetry telemetry, long storedAtMillis) {
+            this.status = status;
+            this.telemetry = telemetry;
+            this.storedAtMillis = storedAtMillis;
+        }
+    }
+}
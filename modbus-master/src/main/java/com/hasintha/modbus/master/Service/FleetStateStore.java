@@ -0,0 +1,196 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import com.hasintha.modbus.master.Repository.JobExecutionRepository;
+import com.hasintha.modbus.master.dto.FleetSnapshotDto;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BiFunction;
+
+/**
+ * Last-value store behind GET /api/fleet/snapshot.
+ *
+ * Holds one immutable {@link FleetSnapshotDto.JobState} per job, replaced by {@link JobScheduler}
+ * on every poll and every job change, so a snapshot never touches the database.
+ *
+ * Every change gets a new version from a global sequence, assigned inside the per-job
+ * {@code compute} that publishes the new state, so writers of different jobs never block each other
+ * and readers never lock. Each writer marks its version done once the state is published, and a
+ * watermark follows the done versions without gaps. A snapshot reports that watermark, so every
+ * change up to its version is visible even while other jobs keep being polled; jobs changed later
+ * may also be included, which only means a delta client sees them again next time.
+ */
+@Component
+public class FleetStateStore {
+
+    // Versions that can be in flight at once; far more than the scheduler has polling threads
+    private static final int DONE_RING_SIZE = 1024;
+
+    private final JobCache jobCache;
+    private final JobExecutionRepository executionRepository;
+
+    private final Map<String, FleetSnapshotDto.JobState> states = new ConcurrentHashMap<>();
+
+    private final AtomicLong version = new AtomicLong();
+    // Slot v % size holds v once the change with version v is published
+    private final AtomicLongArray done = new AtomicLongArray(DONE_RING_SIZE);
+    // Highest version up to which every change is published
+    private final AtomicLong completeVersion = new AtomicLong();
+
+    public FleetStateStore(JobCache jobCache, JobExecutionRepository executionRepository) {
+        this.jobCache = jobCache;
+        this.executionRepository = executionRepository;
+    }
+
+    /**
+     * Seeds the store with the latest stored execution of every job, so the snapshot is complete
+     * right after a restart instead of only after each job's next poll. Skipped polls are ignored.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        try {
+            seedAll();
+        } catch (Exception e) {
+            // Mongo may not be reachable yet; jobs then appear with their first poll
+            System.err.println("Could not seed the fleet snapshot: " + e.getMessage());
+        }
+    }
+
+    private void seedAll() {
+        for (Job job : jobCache.findAll()) {
+            List<FleetSnapshotDto.UnitState> units = new ArrayList<>();
+            if (job.getUnitIds() == null || job.getUnitIds().isEmpty()) {
+                JobExecution latest = executionRepository.findFirstByJobIdAndStatusNotOrderByExecutionTimeDesc(
+                        job.getId(), JobScheduler.SKIPPED_GATEWAY_BUSY);
+                if (latest != null) {
+                    units.add(toUnitState(latest));
+                }
+            } else {
+                for (Integer unitId : job.getUnitIds()) {
+                    JobExecution latest = executionRepository.findFirstByJobIdAndUnitIdAndStatusNotOrderByExecutionTimeDesc(
+                            job.getId(), unitId, JobScheduler.SKIPPED_GATEWAY_BUSY);
+                    if (latest != null) {
+                        units.add(toUnitState(latest));
+                    }
+                }
+            }
+            // A poll may already have run since startup; its state is newer
+            publish(job.getId(), (previous, newVersion) -> previous != null ? previous
+                    : new FleetSnapshotDto.JobState(job.getId(), job.getTargetIp(), job.getStatus(), newVersion, List.copyOf(units)));
+        }
+    }
+
+    /**
+     * Records a job definition change (create, update, stop). Keeps the latest unit states.
+     */
+    public void onJobSaved(Job job) {
+        publish(job.getId(), (previous, newVersion) -> new FleetSnapshotDto.JobState(job.getId(), job.getTargetIp(),
+                job.getStatus(), newVersion, previous != null ? previous.units() : List.of()));
+    }
+
+    /**
+     * Records the executions of one poll. A poll covers every unit of the job, so it replaces the unit list.
+     */
+    public void onPoll(Job job, List<JobExecution> executions) {
+        List<FleetSnapshotDto.UnitState> units = new ArrayList<>(executions.size());
+        for (JobExecution execution : executions) {
+            units.add(toUnitState(execution));
+        }
+
+        List<FleetSnapshotDto.UnitState> polled = List.copyOf(units);
+        // Job status is maintained by onJobSaved; the polled Job is the definition the task was started with
+        publish(job.getId(), (previous, newVersion) -> new FleetSnapshotDto.JobState(job.getId(),
+                previous != null ? previous.targetIp() : job.getTargetIp(),
+                previous != null ? previous.jobStatus() : job.getStatus(),
+                newVersion, polled));
+    }
+
+    /**
+     * Builds a snapshot from the in-memory state.
+     *
+     * @param status Only include units whose latest execution has this status (null = any)
+     * @param staleBefore Only include units not polled since this time (null = any)
+     * @param since Only include jobs changed after this snapshot version (null = full snapshot).
+     *              With a unit filter, a changed job without matching units is included with an
+     *              empty unit list, so a delta client knows to drop the units it holds for it.
+     */
+    public FleetSnapshotDto snapshot(String status, LocalDateTime staleBefore, Long since) {
+        // Taken before reading the slots, so every change up to it is in what we read
+        long currentVersion = completeVersion.get();
+
+        boolean filterUnits = status != null || staleBefore != null;
+        List<FleetSnapshotDto.JobState> jobs = new ArrayList<>();
+        for (FleetSnapshotDto.JobState state : states.values()) {
+            if (since != null && state.version() <= since) {
+                continue;
+            }
+            if (!filterUnits) {
+                jobs.add(state);
+                continue;
+            }
+            List<FleetSnapshotDto.UnitState> units = state.units().stream()
+                    .filter(unit -> status == null || status.equals(unit.status()))
+                    .filter(unit -> staleBefore == null || unit.executionTime() == null
+                            || unit.executionTime().isBefore(staleBefore))
+                    .toList();
+            // A job that was never polled counts as stale
+            boolean neverPolled = state.units().isEmpty() && status == null;
+            if (!units.isEmpty() || neverPolled || since != null) {
+                jobs.add(new FleetSnapshotDto.JobState(state.jobId(), state.targetIp(), state.jobStatus(),
+                        state.version(), units));
+            }
+        }
+        return new FleetSnapshotDto(currentVersion, since != null, LocalDateTime.now(), jobs);
+    }
+
+    // Replaces a job's slot; the new state gets the next version
+    private void publish(String jobId,
+                         BiFunction<FleetSnapshotDto.JobState, Long, FleetSnapshotDto.JobState> next) {
+        long[] taken = new long[1];
+        try {
+            states.compute(jobId, (id, previous) -> next.apply(previous, taken[0] = version.incrementAndGet()));
+        } finally {
+            // Also when the state couldn't be built, or the watermark would stop at this version
+            if (taken[0] != 0) {
+                markDone(taken[0]);
+            }
+        }
+    }
+
+    // Marks a version published and moves the watermark over every version done without a gap.
+    // Each writer checks the next slot after marking its own, so whichever of two neighbouring
+    // writers finishes last moves the watermark past both.
+    private void markDone(long doneVersion) {
+        // The slot still belongs to the version one lap earlier until the watermark passed it
+        while (doneVersion - completeVersion.get() > DONE_RING_SIZE) {
+            Thread.onSpinWait();
+        }
+        done.set(slot(doneVersion), doneVersion);
+        long complete = completeVersion.get();
+        while (done.get(slot(complete + 1)) == complete + 1) {
+            completeVersion.compareAndSet(complete, complete + 1);
+            complete = completeVersion.get();
+        }
+    }
+
+    private static int slot(long version) {
+        return (int) (version % DONE_RING_SIZE);
+    }
+
+    private static FleetSnapshotDto.UnitState toUnitState(JobExecution execution) {
+        // Executions stored before multi-unit jobs have no unit id; they were read from the default unit
+        Integer unitId = execution.getUnitId() != null ? execution.getUnitId() : JobScheduler.DEFAULT_UNIT_ID;
+        return new FleetSnapshotDto.UnitState(unitId, execution.getStatus(),
+                execution.getExecutionTime(), execution.getTelemetry());
+    }
+}
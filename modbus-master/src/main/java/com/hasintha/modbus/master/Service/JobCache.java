@@ -0,0 +1,182 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Repository.JobRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process read-through cache of {@link Job} definitions.
+ *
+ * Jobs are only ever modified through {@link JobScheduler}, which writes every saved job back
+ * into this cache, so cached entries never go stale. The cache is bounded and evicts the least
+ * recently used job once {@code jobs.cache.max-size} is reached.
+ *
+ * It also keeps the version counters used to build HTTP ETags:
+ * - a list version, bumped whenever any job definition changes
+ * - a per-job revision, bumped whenever the job changes or a new execution is recorded for it
+ */
+@Component
+public class JobCache {
+
+    private final JobRepository jobRepository;
+    private final int maxSize;
+
+    // Access-ordered LinkedHashMap = LRU. Guarded by "this".
+    private final LinkedHashMap<String, Job> jobs;
+
+    // True while the cache holds every job in the database, so findAll() can skip the query
+    private boolean complete = false;
+
+    private final AtomicLong listVersion = new AtomicLong();
+    private final Map<String, AtomicLong> revisions = new ConcurrentHashMap<>();
+
+    // Distinguishes ETags issued before a restart, when the counters start again from zero
+    private final String instanceTag = Long.toString(System.currentTimeMillis(), 36);
+
+    public JobCache(JobRepository jobRepository, @Value("${jobs.cache.max-size:1000}") int maxSize) {
+        this.jobRepository = jobRepository;
+        this.maxSize = maxSize;
+        this.jobs = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Job> eldest) {
+                if (size() > JobCache.this.maxSize) {
+                    complete = false;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns a copy of the job, loading it from the database on a cache miss.
+     */
+    public Optional<Job> findById(String jobId) {
+        Optional<Job> cached = getIfPresent(jobId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        Optional<Job> loaded = jobRepository.findById(jobId);
+        loaded.ifPresent(this::load);
+        return loaded;
+    }
+
+    /**
+     * Returns copies of all jobs. Only hits the database while the cache is not known to be complete.
+     */
+    public List<Job> findAll() {
+        List<Job> cached = getAllIfComplete();
+        if (cached != null) {
+            return cached;
+        }
+        long versionBefore = getListVersion();
+        List<Job> all = jobRepository.findAll();
+        loadAll(all, versionBefore);
+        return all;
+    }
+
+    // Non-loading accessors, for callers that read the database themselves (e.g. the reactive stack)
+
+    public synchronized Optional<Job> getIfPresent(String jobId) {
+        Job cached = jobs.get(jobId);
+        return cached != null ? Optional.of(copy(cached)) : Optional.empty();
+    }
+
+    // Copies of all jobs, or null if the cache doesn't hold every job
+    public synchronized List<Job> getAllIfComplete() {
+        return complete ? copyAll() : null;
+    }
+
+    public long getListVersion() {
+        return listVersion.get();
+    }
+
+    /**
+     * Caches a job read from the database. Never replaces an entry, which may be newer than the read.
+     */
+    public synchronized void load(Job job) {
+        jobs.putIfAbsent(job.getId(), copy(job));
+    }
+
+    /**
+     * Caches the full job list read from the database.
+     * @param versionBefore {@link #getListVersion()} taken before the read started
+     */
+    public synchronized void loadAll(List<Job> all, long versionBefore) {
+        // Only trust the snapshot if no job was saved while it was being read
+        if (all.size() <= maxSize && versionBefore == listVersion.get()) {
+            jobs.clear();
+            all.forEach(job -> jobs.put(job.getId(), copy(job)));
+            complete = true;
+        }
+    }
+
+    /**
+     * Stores a job that was just saved to the database. Called by {@link JobScheduler} after every write.
+     */
+    public void put(Job job) {
+        synchronized (this) {
+            jobs.put(job.getId(), copy(job));
+        }
+        listVersion.incrementAndGet();
+        bumpRevision(job.getId());
+    }
+
+    /**
+     * Records that a new execution was stored for the job, invalidating its detail ETag.
+     */
+    public void markExecution(String jobId) {
+        bumpRevision(jobId);
+    }
+
+    // ETag for GET /api/jobs
+    public String getListETag() {
+        return "\"jobs-" + instanceTag + "-" + listVersion.get() + "\"";
+    }
+
+    // ETag for GET /api/jobs/{jobId}; the page parameters are part of the representation
+    public String getJobETag(String jobId, int page, int size) {
+        AtomicLong revision = revisions.get(jobId);
+        long value = revision != null ? revision.get() : 0;
+        return "\"job-" + jobId + "-" + instanceTag + "-" + value + "-" + page + "-" + size + "\"";
+    }
+
+    private void bumpRevision(String jobId) {
+        revisions.computeIfAbsent(jobId, id -> new AtomicLong()).incrementAndGet();
+    }
+
+    private List<Job> copyAll() {
+        List<Job> result = new ArrayList<>(jobs.size());
+        jobs.values().forEach(job -> result.add(copy(job)));
+        return result;
+    }
+
+    // Job is mutable, so callers never get the cached instance itself
+    private static Job copy(Job job) {
+        Job copy = new Job();
+        copy.setId(job.getId());
+        copy.setTargetIp(job.getTargetIp());
+        copy.setCronExpression(job.getCronExpression());
+        copy.setUnitIds(job.getUnitIds() == null ? null : List.copyOf(job.getUnitIds()));
+        copy.setBusBaudRate(job.getBusBaudRate());
+        if (job.getPersistencePolicy() != null) {
+            Job.PersistencePolicy policy = new Job.PersistencePolicy();
+            policy.setDeadbandAbsolute(job.getPersistencePolicy().getDeadbandAbsolute());
+            policy.setDeadbandPercent(job.getPersistencePolicy().getDeadbandPercent());
+            policy.setHeartbeatSeconds(job.getPersistencePolicy().getHeartbeatSeconds());
+            copy.setPersistencePolicy(policy);
+        }
+        copy.setStatus(job.getStatus());
+        copy.setCreatedAt(job.getCreatedAt());
+        return copy;
+    }
+}
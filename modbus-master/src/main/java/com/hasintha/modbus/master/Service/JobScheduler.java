@@ -2,37 +2,62 @@ package com.hasintha.modbus.master.Service;
 
 import com.hasintha.modbus.master.Exception.JobAlreadyStoppedException;
 import com.hasintha.modbus.master.Exception.JobNotFoundException;
+import com.hasintha.modbus.master.Exception.ModbusException;
 import com.hasintha.modbus.master.Model.Job;
 import com.hasintha.modbus.master.Model.JobExecution;
 import com.hasintha.modbus.master.Model.JobStopResult;
 import com.hasintha.modbus.master.Repository.JobRepository;
 import com.hasintha.modbus.master.Repository.JobExecutionRepository;
+import com.hasintha.modbus.master.dto.JobRequestDto;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.scheduling.support.CronTrigger;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 public class JobScheduler {
 
+    // Modbus RTU slave address range, and the unit polled when a job doesn't list any
+    private static final int MIN_UNIT_ID = 1;
+    private static final int MAX_UNIT_ID = 247;
+    static final int DEFAULT_UNIT_ID = 1;
+    // Longest a poll waits for a gateway that another poll is using (about one unit timeout)
+    private static final long GATEWAY_LOCK_WAIT_MS = 2000;
+    // Status of the executions recorded for a poll that didn't get the gateway
+    static final String SKIPPED_GATEWAY_BUSY = "SKIPPED_GATEWAY_BUSY";
+
     private final ThreadPoolTaskScheduler taskScheduler;
     private final ModbusService modbusService;
     private final JobRepository jobRepository;
     private final JobExecutionRepository executionRepository;
+    private final JobCache jobCache;
+    private final AlertEngine alertEngine;
+    private final FleetStateStore fleetState;
+    private final DeadbandFilter deadbandFilter;
 
     // Map to hold active tasks so we can cancel them later (for DELETE /jobs/{id})
     private final Map<String, ScheduledFuture<?>> activeTasks = new ConcurrentHashMap<>();
 
-    public JobScheduler(ModbusService modbusService, JobRepository jobRepository, JobExecutionRepository executionRepository) {
+    public JobScheduler(ModbusService modbusService, JobRepository jobRepository, JobExecutionRepository executionRepository,
+                        JobCache jobCache, AlertEngine alertEngine, FleetStateStore fleetState,
+                        DeadbandFilter deadbandFilter) {
         this.modbusService = modbusService;
         this.jobRepository = jobRepository;
         this.executionRepository = executionRepository;
+        this.jobCache = jobCache;
+        this.alertEngine = alertEngine;
+        this.fleetState = fleetState;
+        this.deadbandFilter = deadbandFilter;
 
         this.taskScheduler = new ThreadPoolTaskScheduler();
         this.taskScheduler.setPoolSize(5);
@@ -41,15 +66,20 @@ public class JobScheduler {
 
     /**
      * Creates a Job record and starts the scheduler.
+     * Optional fields: unitIds (null = unit 1), busBaudRate (null = no pacing),
+     * persistencePolicy (null = store every execution).
      */
-    public Job scheduleNewJob(String ip, String cron) {
+    public Job scheduleNewJob(JobRequestDto request) {
         // 1. Save Job Definition
         Job job = new Job();
-        job.setTargetIp(ip);
-        job.setCronExpression(cron);
+        job.setTargetIp(request.targetIp());
+        job.setCronExpression(request.cronExpression());
+        job.setUnitIds(normalizeUnitIds(request.unitIds()));
+        job.setBusBaudRate(normalizeBaudRate(request.busBaudRate()));
+        job.setPersistencePolicy(normalizePolicy(request.persistencePolicy()));
         job.setStatus("RUNNING");
         job.setCreatedAt(LocalDateTime.now());
-        job = jobRepository.save(job);
+        job = saveJob(job);
 
         // 2. Start the Task
         startTask(job);
@@ -67,40 +97,211 @@ public class JobScheduler {
         }
     }
 
-    //The actual logic that runs every X seconds
+    //The actual logic that runs every X seconds.
+    //All units behind the target (gateway) are read back-to-back over one connection; one execution per unit.
+    //Every execution updates the fleet snapshot and alerts first; only those passing the job's persistence policy are stored.
     private void executePoll(Job job) {
+        List<Integer> unitIds = unitIdsOf(job);
+        List<JobExecution> executions = new ArrayList<>(unitIds.size());
+
+        // Polls of other jobs on the same gateway wait (briefly) instead of competing for its serial bus.
+        // A gateway kept busy longer, e.g. by timeouts on dead units, must not park the scheduler's few
+        // threads, so the poll is skipped instead.
+        ReentrantLock gatewayLock = modbusService.gatewayLock(job.getTargetIp());
+        if (!tryLockGateway(gatewayLock)) {
+            recordSkipped(job, unitIds);
+            return;
+        }
+        try {
+            readUnits(job, unitIds, executions);
+        } finally {
+            gatewayLock.unlock();
+        }
+
+        // The in-memory latest state and the alerts see every poll, whether or not it gets stored
+        fleetState.onPoll(job, executions);
+        for (JobExecution execution : executions) {
+            try {
+                alertEngine.onExecution(job, execution);
+            } catch (Exception e) {
+                // Alerting must never stop polling
+                System.err.println("Alert evaluation failed for job " + job.getId() + ": " + e.getMessage());
+            }
+            System.out.println("Job " + job.getId() + " unit " + execution.getUnitId() + " executed. Status: " + execution.getStatus());
+        }
+
+        long now = System.currentTimeMillis();
+        List<JobExecution> toStore = new ArrayList<>(executions.size());
+        List<JobExecution> held = new ArrayList<>();
+        for (JobExecution execution : executions) {
+            (deadbandFilter.shouldStore(job, execution, now) ? toStore : held).add(execution);
+        }
+        boolean saved = !toStore.isEmpty() && saveExecutions(job, toStore);
+        // The deadband compares against what is actually in the database, so a failed write counts as held
+        for (JobExecution execution : toStore) {
+            deadbandFilter.commit(job, execution, saved, now);
+        }
+        for (JobExecution execution : held) {
+            deadbandFilter.commit(job, execution, false, now);
+        }
+    }
+
+    // A skipped poll measured nothing: it is stored (one row per unit) so the history shows the gap,
+    // but the fleet snapshot keeps the last reading and alert rules and the deadband never see it
+    private void recordSkipped(Job job, List<Integer> unitIds) {
+        List<JobExecution> skipped = new ArrayList<>(unitIds.size());
+        for (int unitId : unitIds) {
+            newExecution(job, unitId, skipped).setStatus(SKIPPED_GATEWAY_BUSY);
+        }
+        System.err.println("Job " + job.getId() + " skipped: gateway " + job.getTargetIp() + " busy");
+        saveExecutions(job, skipped);
+    }
+
+    private boolean saveExecutions(Job job, List<JobExecution> executions) {
+        try {
+            executionRepository.saveAll(executions);
+            jobCache.markExecution(job.getId());
+            return true;
+        } catch (Exception e) {
+            System.err.println("Could not store executions of job " + job.getId() + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    // Reads every unit over one connection; caller holds the gateway lock
+    private void readUnits(Job job, List<Integer> unitIds, List<JobExecution> executions) {
+        ModbusConnection connection = null;
+        try {
+            String connectError = null;
+            for (int unitId : unitIds) {
+                JobExecution execution = newExecution(job, unitId, executions);
+
+                // Gateway unreachable: don't wait for another connect timeout per remaining unit
+                if (connectError != null) {
+                    execution.setStatus(connectError);
+                    continue;
+                }
+
+                try {
+                    if (connection == null) {
+                        connection = modbusService.connect(job.getTargetIp(), job.getBusBaudRate());
+                    }
+                    // Read CPU (0x04)
+                    double cpu = connection.readRegister(unitId, 0x04);
+                    // Read RAM (0x06)
+                    double ram = connection.readRegister(unitId, 0x06);
+                    // Read Disk (0x08)
+                    double disk = connection.readRegister(unitId, 0x08);
+
+                    JobExecution.Telemetry t = new JobExecution.Telemetry();
+                    t.setCpu(cpu);
+                    t.setRam(ram);
+                    t.setDisk(disk);
+
+                    execution.setTelemetry(t);
+                    execution.setStatus("COMPLETED");
+
+                } catch (Exception e) {
+                    execution.setStatus(errorStatus(e));
+                    if (connection == null) {
+                        connectError = execution.getStatus();
+                    } else {
+                        // A late or partial reply could be read as the next unit's response, so start clean
+                        closeQuietly(connection);
+                        connection = null;
+                    }
+                }
+            }
+        } finally {
+            closeQuietly(connection);
+        }
+    }
+
+    private static JobExecution newExecution(Job job, int unitId, List<JobExecution> executions) {
         JobExecution execution = new JobExecution();
         execution.setJobId(job.getId());
         execution.setTargetIp(job.getTargetIp());
+        execution.setUnitId(unitId);
         execution.setExecutionTime(LocalDateTime.now());
+        executions.add(execution);
+        return execution;
+    }
 
+    private static boolean tryLockGateway(ReentrantLock gatewayLock) {
         try {
-            // Read CPU (0x04)
-            double cpu = modbusService.readRegister(job.getTargetIp(), 0x04);
-            // Read RAM (0x06)
-            double ram = modbusService.readRegister(job.getTargetIp(), 0x06);
-            // Read Disk (0x08)
-            double disk = modbusService.readRegister(job.getTargetIp(), 0x08);
-
-            JobExecution.Telemetry t = new JobExecution.Telemetry();
-            t.setCpu(cpu);
-            t.setRam(ram);
-            t.setDisk(disk);
-
-            execution.setTelemetry(t);
-            execution.setStatus("COMPLETED");
-
-        } catch (java.net.SocketTimeoutException e) {
-            execution.setStatus("ERROR_TIMEOUT");
-        } catch (java.net.ConnectException e) {
-            execution.setStatus("ERROR_TCP");
-        } catch (Exception e) {
-            execution.setStatus("ERROR_APP");
-            e.printStackTrace();
+            return gatewayLock.tryLock(GATEWAY_LOCK_WAIT_MS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
         }
+    }
 
-        executionRepository.save(execution);
-        System.out.println("Job " + job.getId() + " executed. Status: " + execution.getStatus());
+    private static String errorStatus(Exception e) {
+        if (e instanceof java.net.SocketTimeoutException) {
+            return "ERROR_TIMEOUT";
+        } else if (e instanceof java.net.ConnectException || e instanceof java.io.EOFException) {
+            return "ERROR_TCP";
+        } else if (e instanceof ModbusException) {
+            return "ERROR_MODBUS";
+        }
+        e.printStackTrace();
+        return "ERROR_APP";
+    }
+
+    private static void closeQuietly(ModbusConnection connection) {
+        if (connection == null) return;
+        try {
+            connection.close();
+        } catch (java.io.IOException ignored) {
+        }
+    }
+
+    // Jobs created before unit ids were supported poll the single default unit
+    private static List<Integer> unitIdsOf(Job job) {
+        List<Integer> unitIds = job.getUnitIds();
+        return unitIds == null || unitIds.isEmpty() ? List.of(DEFAULT_UNIT_ID) : unitIds;
+    }
+
+    /**
+     * Validates unit ids (1-247, the Modbus slave address range) and removes duplicates, keeping poll order.
+     * @return normalized list, or null if none were given
+     */
+    private static List<Integer> normalizeUnitIds(List<Integer> unitIds) {
+        if (unitIds == null || unitIds.isEmpty()) {
+            return null;
+        }
+        LinkedHashSet<Integer> unique = new LinkedHashSet<>();
+        for (Integer unitId : unitIds) {
+            if (unitId == null || unitId < MIN_UNIT_ID || unitId > MAX_UNIT_ID) {
+                throw new IllegalArgumentException("Invalid unit id: " + unitId + " (expected " + MIN_UNIT_ID + "-" + MAX_UNIT_ID + ")");
+            }
+            unique.add(unitId);
+        }
+        return new ArrayList<>(unique);
+    }
+
+    private static Integer normalizeBaudRate(Integer busBaudRate) {
+        if (busBaudRate != null && busBaudRate <= 0) {
+            throw new IllegalArgumentException("Invalid bus baud rate: " + busBaudRate);
+        }
+        return busBaudRate;
+    }
+
+    // Rejects negative limits; a policy without any field set means "no policy"
+    private static Job.PersistencePolicy normalizePolicy(Job.PersistencePolicy policy) {
+        if (policy == null) {
+            return null;
+        }
+        if ((policy.getDeadbandAbsolute() != null && policy.getDeadbandAbsolute() < 0)
+                || (policy.getDeadbandPercent() != null && policy.getDeadbandPercent() < 0)
+                || (policy.getHeartbeatSeconds() != null && policy.getHeartbeatSeconds() <= 0)) {
+            throw new IllegalArgumentException("Deadbands must be >= 0 and heartbeatSeconds > 0");
+        }
+        if (policy.getDeadbandAbsolute() == null && policy.getDeadbandPercent() == null
+                && policy.getHeartbeatSeconds() == null) {
+            return null;
+        }
+        return policy;
     }
 
     /**
@@ -109,13 +310,13 @@ public class JobScheduler {
     public void stopJob(String jobId) {
 
         // Check if job exists in database
-        Job job = jobRepository.findById(jobId).orElseThrow(() -> new JobNotFoundException(jobId));
+        Job job = jobCache.findById(jobId).orElseThrow(() -> new JobNotFoundException(jobId));
 
         // Job already stopped
         if (!activeTasks.containsKey(jobId)) {
             if(!Objects.equals(job.getStatus(), "STOPPED")) {
                 job.setStatus("STOPPED");
-                jobRepository.save(job);
+                saveJob(job);
             }
             throw new JobAlreadyStoppedException(jobId);
         }
@@ -123,9 +324,11 @@ public class JobScheduler {
 //      Cancel the scheduled thread
         activeTasks.get(jobId).cancel(false);
         activeTasks.remove(jobId);
+        deadbandFilter.forget(jobId);
+        alertEngine.forget(jobId);
         //update DB status
         job.setStatus("STOPPED");
-        jobRepository.save(job);
+        saveJob(job);
     }
 
     /**
@@ -135,11 +338,15 @@ public class JobScheduler {
      * - Updates parameters for stopped jobs and starts them
      * - Restarts stopped jobs without changing parameters
      */
-    public Job updateJob(String jobId, String newIp, String newCron) {
+    public Job updateJob(String jobId, JobRequestDto request) {
         // Find the existing job
-        Job job = jobRepository.findById(jobId).orElseThrow(() -> new JobNotFoundException(jobId));
+        Job job = jobCache.findById(jobId).orElseThrow(() -> new JobNotFoundException(jobId));
 
         boolean hasChanges = false;
+        String newIp = request.targetIp();
+        String newCron = request.cronExpression();
+        List<Integer> newUnitIds = request.unitIds();
+        Integer newBusBaudRate = request.busBaudRate();
 
         // Update job parameters if provided
         if (newIp != null && !newIp.isEmpty()) {
@@ -150,6 +357,19 @@ public class JobScheduler {
             job.setCronExpression(newCron);
             hasChanges = true;
         }
+        if (newUnitIds != null && !newUnitIds.isEmpty()) {
+            job.setUnitIds(normalizeUnitIds(newUnitIds));
+            hasChanges = true;
+        }
+        if (newBusBaudRate != null) {
+            job.setBusBaudRate(normalizeBaudRate(newBusBaudRate));
+            hasChanges = true;
+        }
+        if (request.persistencePolicy() != null) {
+            // An empty policy object clears the policy (store every execution again)
+            job.setPersistencePolicy(normalizePolicy(request.persistencePolicy()));
+            hasChanges = true;
+        }
 
         // Determine if we need to reschedule the job
         boolean needsReschedule = false;
@@ -169,7 +389,7 @@ public class JobScheduler {
         // If job is running and no changes, just make sure status is set to RUNNING
         else if (isCurrentlyRunning && !hasChanges) {
             job.setStatus("RUNNING");
-            job = jobRepository.save(job);
+            job = saveJob(job);
             return job;
         }
 
@@ -177,7 +397,7 @@ public class JobScheduler {
         job.setStatus("RUNNING");
 
         // Save the updated job
-        job = jobRepository.save(job);
+        job = saveJob(job);
 
         // Start the job if needed
         if (needsReschedule) {
@@ -187,4 +407,12 @@ public class JobScheduler {
         return job;
     }
 
-}
\ No newline at end of file
+    // Every job write goes through here so the job cache and fleet state stay in sync with the database
+    private Job saveJob(Job job) {
+        Job saved = jobRepository.save(job);
+        jobCache.put(saved);
+        fleetState.onJobSaved(saved);
+        return saved;
+    }
+
+}
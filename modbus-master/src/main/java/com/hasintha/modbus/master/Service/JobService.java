@@ -1,12 +1,17 @@
 package com.hasintha.modbus.master.Service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.hasintha.modbus.master.Exception.JobNotFoundException;
+import com.hasintha.modbus.master.Model.ExportFormat;
 import com.hasintha.modbus.master.Model.Job;
 import com.hasintha.modbus.master.Model.JobExecution;
 import com.hasintha.modbus.master.Repository.JobExecutionRepository;
-import com.hasintha.modbus.master.Repository.JobRepository;
+import com.hasintha.modbus.master.Utils.ExecutionCsv;
 import com.hasintha.modbus.master.dto.JobExecutionDto;
-import com.hasintha.modbus.master.dto.JobResponseDto;
+import com.hasintha.modbus.master.dto.JobRequestDto;
 import com.hasintha.modbus.master.dto.PagedJobExecutionResponseDto;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
@@ -14,46 +19,94 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.stream.Stream;
 
 @Service
 public class JobService {
 
-    private final JobRepository jobRepository;
+    // Number of streamed executions written between flushes of the response
+    private static final int EXPORT_FLUSH_INTERVAL = JobExecutionRepository.STREAM_BATCH_SIZE;
+
     private final JobExecutionRepository jobExecutionRepository;
     private final JobScheduler jobScheduler;
+    private final JobCache jobCache;
+    private final ObjectMapper objectMapper;
+
+    // Flush per element would be one network write per execution, so streamed output is flushed in chunks
+    private final ObjectWriter historyWriter;
 
-    public JobService(JobRepository jobRepository, JobExecutionRepository jobExecutionRepository, JobScheduler jobScheduler){
-        this.jobRepository = jobRepository;
+    public JobService(JobExecutionRepository jobExecutionRepository, JobScheduler jobScheduler,
+                      JobCache jobCache, ObjectMapper objectMapper){
         this.jobExecutionRepository = jobExecutionRepository;
         this.jobScheduler = jobScheduler;
+        this.jobCache = jobCache;
+        this.objectMapper = objectMapper;
+        this.historyWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     public List<Job> getAllJobs(){
-        return jobRepository.findAll();
+        return jobCache.findAll();
     }
 
-    public JobResponseDto getJobDetails(String jobId){
-        // Get Job Metadata
-        Job job = jobRepository.findById(jobId).orElseThrow( () -> new JobNotFoundException(jobId));
-
-        // Get Execution History
-        List<JobExecution> history = jobExecutionRepository.findByJobIdOrderByExecutionTimeDesc(jobId);
-
-        // Convert list of history entities to a list of history DTOs
-        List<JobExecutionDto> executionDtos = history.stream()
-                .map(exec -> new JobExecutionDto(
-                        exec.getId(),
-                        exec.getExecutionTime(),
-                        exec.getStatus(),
-                        exec.getTelemetry()
-                ))
-                .toList();
+    public Job getJob(String jobId) {
+        return jobCache.findById(jobId).orElseThrow(() -> new JobNotFoundException(jobId));
+    }
+
+    // ETag of the job list; changes whenever a job is created, updated or stopped
+    public String getJobsETag() {
+        return jobCache.getListETag();
+    }
 
-        //return main DTO
-        return new JobResponseDto(job.getId(),job.getStatus(),job.getCreatedAt(),executionDtos);
+    // ETag of one page of job details; also changes whenever a new execution is recorded for the job
+    public String getJobDetailsETag(String jobId, int page, int size) {
+        return jobCache.getJobETag(jobId, page, size);
+    }
+
+    /**
+     * Writes the legacy v0 job document ({@code jobId}, {@code status} and the raw execution entities).
+     * Executions are read from a Mongo cursor and written one at a time, so memory use does not
+     * grow with the size of the history.
+     */
+    public void writeLegacyJobHistory(Job job, OutputStream out) throws IOException {
+        JsonGenerator gen = createGenerator(out);
+        gen.writeStartObject();
+        gen.writeStringField("jobId", job.getId());
+        gen.writeStringField("status", job.getStatus());
+        writeExecutionsArray(gen, job.getId());
+        gen.writeEndObject();
+        gen.close();
+    }
+
+    /**
+     * Exports executions of a job in the range [from, to) as NDJSON or CSV, oldest first.
+     * Rows are written directly from the Mongo cursor and the output is flushed every
+     * {@value #EXPORT_FLUSH_INTERVAL} rows, so the export runs in constant memory.
+     *
+     * @param jobId The job identifier (existence should be checked by the caller before streaming starts)
+     * @param from Inclusive lower bound of executionTime
+     * @param to Exclusive upper bound of executionTime
+     * @param format Output format
+     * @param out Target stream (not closed by this method)
+     */
+    public void exportExecutions(String jobId, LocalDateTime from, LocalDateTime to,
+                                 ExportFormat format, OutputStream out) throws IOException {
+        try (Stream<JobExecution> executions =
+                     jobExecutionRepository.streamByJobIdAndExecutionTimeRange(jobId, from, to)) {
+            if (format == ExportFormat.CSV) {
+                writeCsv(executions.iterator(), out);
+            } else {
+                writeNdjson(executions.iterator(), out);
+            }
+        }
     }
 
     /**
@@ -67,8 +120,7 @@ public class JobService {
      */
     public PagedJobExecutionResponseDto getJobDetailsWithPagination(String jobId, int page, int size) {
         // 1. Fetch job metadata (throws JobNotFoundException if not found)
-        Job job = jobRepository.findById(jobId)
-                .orElseThrow(() -> new JobNotFoundException(jobId));
+        Job job = getJob(jobId);
 
         // 2. Create Pageable object for pagination
         // Sort by executionTime descending (newest first) is already in method name
@@ -80,24 +132,12 @@ public class JobService {
 
         // 4. Convert Page<JobExecution> to List<JobExecutionDto>
         List<JobExecutionDto> executionDtos = executionPage.getContent().stream()
-                .map(exec -> new JobExecutionDto(
-                        exec.getId(),
-                        exec.getExecutionTime(),
-                        exec.getStatus(),
-                        exec.getTelemetry()
-                ))
+                .map(JobExecutionDto::from)
                 .toList();
 
         // 5. Build pagination metadata
         PagedJobExecutionResponseDto.PaginationMetadata paginationMetadata =
-                new PagedJobExecutionResponseDto.PaginationMetadata(
-                        executionPage.getNumber(),          // currentPage (0-based)
-                        executionPage.getSize(),            // pageSize
-                        executionPage.getTotalElements(),   // totalElements
-                        executionPage.getTotalPages(),      // totalPages
-                        executionPage.isFirst(),            // first
-                        executionPage.isLast()              // last
-                );
+                PagedJobExecutionResponseDto.PaginationMetadata.from(executionPage);
 
         // 6. Return complete DTO
         return new PagedJobExecutionResponseDto(
@@ -110,8 +150,62 @@ public class JobService {
         );
     }
 
-    public Job updateJob(String jobId, String targetIp, String cronExpression) {
+    public Job updateJob(String jobId, JobRequestDto request) {
         // Delegate to JobScheduler to handle the update properly (stop/start job)
-        return jobScheduler.updateJob(jobId, targetIp, cronExpression);
+        return jobScheduler.updateJob(jobId, request);
+    }
+
+    private JsonGenerator createGenerator(OutputStream out) throws IOException {
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+        // The servlet/gzip stream is owned by the caller
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return gen;
+    }
+
+    // Writes "executions": [...] from a newest-first cursor, flushing every EXPORT_FLUSH_INTERVAL elements
+    private void writeExecutionsArray(JsonGenerator gen, String jobId) throws IOException {
+        gen.writeArrayFieldStart("executions");
+        try (Stream<JobExecution> history = jobExecutionRepository.streamByJobIdOrderByExecutionTimeDesc(jobId)) {
+            Iterator<JobExecution> it = history.iterator();
+            int written = 0;
+            while (it.hasNext()) {
+                historyWriter.writeValue(gen, it.next());
+                if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                    gen.flush();
+                }
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeNdjson(Iterator<JobExecution> executions, OutputStream out) throws IOException {
+        JsonGenerator gen = createGenerator(out);
+        // Lines are separated by the '\n' below; the default root separator would add a space before each line
+        gen.setRootValueSeparator(null);
+        int written = 0;
+        while (executions.hasNext()) {
+            historyWriter.writeValue(gen, JobExecutionDto.from(executions.next()));
+            gen.writeRaw('\n');
+            if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                gen.flush();
+            }
+        }
+        gen.close();
+    }
+
+    private void writeCsv(Iterator<JobExecution> executions, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(ExecutionCsv.HEADER);
+        StringBuilder row = new StringBuilder(128);
+        int written = 0;
+        while (executions.hasNext()) {
+            row.setLength(0);
+            ExecutionCsv.appendRow(row, executions.next());
+            writer.append(row);
+            if (++written % EXPORT_FLUSH_INTERVAL == 0) {
+                writer.flush();
+            }
+        }
+        writer.flush();
     }
 }
@@ -0,0 +1,139 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Exception.ModbusException;
+import com.hasintha.modbus.master.Utils.ModbusCrc;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One open TCP connection to a Modbus RTU slave or an RTU-over-TCP gateway.
+ *
+ * Requests for any unit id behind the gateway can be sent back-to-back over the same connection.
+ * If the gateway's serial baud rate is known, the RTU inter-frame silence (3.5 character times)
+ * is kept between the end of one response and the next request, so the serial bus is never overrun.
+ *
+ * Not thread-safe: a connection is used by one poll at a time (see {@link ModbusService#gatewayLock}).
+ */
+public class ModbusConnection implements Closeable {
+
+    // t3.5 = 3.5 characters * 11 bits (1 start + 8 data + 1 parity/stop + 1 stop) / baud, in nanoseconds
+    private static final long T35_BIT_NANOS = 38_500_000_000L;
+    // Above 19200 baud the spec fixes t3.5 at 1750 microseconds
+    private static final int FIXED_TIMING_BAUD = 19200;
+    private static final long FIXED_SILENT_INTERVAL_NANOS = 1_750_000L;
+
+    private final Socket socket;
+    private final OutputStream out;
+    private final InputStream in;
+    private final long silentIntervalNanos;
+    private long lastFrameEndNanos;
+
+    ModbusConnection(Socket socket, Integer busBaudRate) throws IOException {
+        this.socket = socket;
+        this.out = socket.getOutputStream();
+        this.in = socket.getInputStream();
+        this.silentIntervalNanos = silentIntervalNanos(busBaudRate);
+    }
+
+    /**
+     * Reads a single 16-bit holding register from a unit behind this connection.
+     * @param unitId The Modbus slave/unit id (1-247)
+     * @param registerAddr The register address (0x04, 0x06, 0x08)
+     * @return The scaled value (e.g. 45.5)
+     * @throws java.net.SocketTimeoutException if the unit did not answer in time
+     * @throws ModbusException if the unit answered with an exception or a malformed frame
+     */
+    public double readRegister(int unitId, int registerAddr) throws IOException, ModbusException {
+        // --- 1. Construct Request Frame (8 Bytes) ---
+        // [SlaveID(1)][Func(1)][AddrHi(1)][AddrLo(1)][CntHi(1)][CntLo(1)][CrcLo(1)][CrcHi(1)]
+        byte[] request = new byte[8];
+        request[0] = (byte) unitId;
+        request[1] = 0x03;  // Function Code (Read Holding Registers)
+        request[2] = (byte) ((registerAddr >> 8) & 0xFF);
+        request[3] = (byte) (registerAddr & 0xFF);
+        request[4] = 0x00;
+        request[5] = 0x01;  // Count = 1 Register
+        ModbusCrc.appendCrc(request, 6);
+
+        awaitBusSilence();
+        out.write(request);
+        out.flush();
+
+        // --- 2. Read Response ---
+        // The connection is reused, so read exactly one frame and nothing of the next one:
+        // [SlaveID(1)][Func(1)][Bytes(1)][DataHi(1)][DataLo(1)][CrcLo(1)][CrcHi(1)] = 7 bytes
+        // or exception: [SlaveID(1)][Func|0x80(1)][Code(1)][CrcLo(1)][CrcHi(1)] = 5 bytes
+        byte[] response = new byte[7];
+        readFully(response, 0, 3);
+
+        boolean isException = (response[1] & 0x80) != 0;
+        int frameLength = isException ? 5 : 3 + (response[2] & 0xFF) + 2;
+        if (!isException && frameLength != 7) {
+            throw new ModbusException("Invalid byte count: " + (response[2] & 0xFF));
+        }
+        readFully(response, 3, frameLength - 3);
+        lastFrameEndNanos = System.nanoTime();
+
+        // --- 3. Validate CRC and addressing ---
+        int receivedCrc = ((response[frameLength - 1] & 0xFF) << 8) | (response[frameLength - 2] & 0xFF);
+        if (receivedCrc != ModbusCrc.calculate(response, frameLength - 2)) {
+            throw new ModbusException("CRC Mismatch");
+        }
+        if ((response[0] & 0xFF) != unitId) {
+            throw new ModbusException("Response from unit " + (response[0] & 0xFF) + ", expected " + unitId);
+        }
+        if (isException) {
+            throw new ModbusException("Unit " + unitId + " returned exception code " + (response[2] & 0xFF));
+        }
+
+        // --- 4. Parse Value ---
+        int high = response[3] & 0xFF;
+        int low = response[4] & 0xFF;
+        int rawValue = (high << 8) | low;
+
+        return rawValue / 100.0; // Scale back to percentage (4500 -> 45.00)
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void readFully(byte[] buffer, int offset, int length) throws IOException {
+        while (length > 0) {
+            int n = in.read(buffer, offset, length);
+            if (n < 0) {
+                throw new EOFException("Connection closed by gateway");
+            }
+            offset += n;
+            length -= n;
+        }
+    }
+
+    private void awaitBusSilence() {
+        if (silentIntervalNanos == 0 || lastFrameEndNanos == 0) {
+            return;
+        }
+        long remaining;
+        while ((remaining = lastFrameEndNanos + silentIntervalNanos - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    // Inter-frame silence (t3.5) for a serial bus at the given baud rate, e.g. ~4.01 ms at 9600 baud
+    static long silentIntervalNanos(Integer busBaudRate) {
+        if (busBaudRate == null || busBaudRate <= 0) {
+            return 0; // Plain Modbus TCP device, no serial bus to pace
+        }
+        if (busBaudRate > FIXED_TIMING_BAUD) {
+            return FIXED_SILENT_INTERVAL_NANOS;
+        }
+        return T35_BIT_NANOS / busBaudRate;
+    }
+}
@@ -0,0 +1,234 @@
+package com.hasintha.modbus.master.Service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hasintha.modbus.master.Exception.JobNotFoundException;
+import com.hasintha.modbus.master.Model.ExportFormat;
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import com.hasintha.modbus.master.Repository.JobExecutionRepository;
+import com.hasintha.modbus.master.Repository.ReactiveJobExecutionRepository;
+import com.hasintha.modbus.master.Repository.ReactiveJobRepository;
+import com.hasintha.modbus.master.Utils.ExecutionCsv;
+import com.hasintha.modbus.master.dto.JobExecutionDto;
+import com.hasintha.modbus.master.dto.JobRequestDto;
+import com.hasintha.modbus.master.dto.PagedJobExecutionResponseDto;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Non-blocking counterpart of {@link JobService}, used by the "reactive" profile.
+ *
+ * Reads go through the reactive Mongo repositories (and the shared {@link JobCache}); streamed
+ * responses are emitted in chunks of {@value #CHUNK_SIZE} executions as the client consumes them.
+ * Job writes still go through {@link JobScheduler}, which is blocking, so they run on the
+ * bounded elastic scheduler instead of an event loop thread.
+ */
+@Service
+@Profile("reactive")
+public class ReactiveJobService {
+
+    // Executions per emitted response chunk, matching the cursor batch size
+    static final int CHUNK_SIZE = JobExecutionRepository.STREAM_BATCH_SIZE;
+
+    private final ReactiveJobRepository jobRepository;
+    private final ReactiveJobExecutionRepository jobExecutionRepository;
+    private final JobScheduler jobScheduler;
+    private final JobCache jobCache;
+    private final ObjectMapper objectMapper;
+
+    public ReactiveJobService(ReactiveJobRepository jobRepository, ReactiveJobExecutionRepository jobExecutionRepository,
+                              JobScheduler jobScheduler, JobCache jobCache, ObjectMapper objectMapper) {
+        this.jobRepository = jobRepository;
+        this.jobExecutionRepository = jobExecutionRepository;
+        this.jobScheduler = jobScheduler;
+        this.jobCache = jobCache;
+        this.objectMapper = objectMapper;
+    }
+
+    public Mono<List<Job>> getAllJobs() {
+        return Mono.defer(() -> {
+            List<Job> cached = jobCache.getAllIfComplete();
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            long versionBefore = jobCache.getListVersion();
+            return jobRepository.findAll()
+                    .collectList()
+                    .doOnNext(all -> jobCache.loadAll(all, versionBefore));
+        });
+    }
+
+    // Empty if the job doesn't exist
+    public Mono<Job> findJob(String jobId) {
+        return Mono.defer(() -> {
+            Optional<Job> cached = jobCache.getIfPresent(jobId);
+            return cached.map(Mono::just)
+                    .orElseGet(() -> jobRepository.findById(jobId).doOnNext(jobCache::load));
+        });
+    }
+
+    // Errors with JobNotFoundException if the job doesn't exist
+    public Mono<Job> getJob(String jobId) {
+        return findJob(jobId).switchIfEmpty(Mono.error(() -> new JobNotFoundException(jobId)));
+    }
+
+    public String getJobsETag() {
+        return jobCache.getListETag();
+    }
+
+    public String getJobDetailsETag(String jobId, int page, int size) {
+        return jobCache.getJobETag(jobId, page, size);
+    }
+
+    /**
+     * Same response as {@link JobService#getJobDetailsWithPagination}; the page and the total count
+     * are queried concurrently.
+     */
+    public Mono<PagedJobExecutionResponseDto> getJobDetailsWithPagination(String jobId, int page, int size) {
+        Pageable pageable = PageRequest.of(page, size);
+
+        return getJob(jobId).flatMap(job -> Mono.zip(
+                        jobExecutionRepository.findByJobIdOrderByExecutionTimeDesc(jobId, pageable).collectList(),
+                        jobExecutionRepository.countByJobId(jobId))
+                .map(result -> {
+                    PageImpl<JobExecution> executionPage = new PageImpl<>(result.getT1(), pageable, result.getT2());
+                    return new PagedJobExecutionResponseDto(
+                            job.getId(),
+                            job.getStatus(),
+                            job.getCreatedAt(),
+                            job.getCronExpression(),
+                            executionPage.getContent().stream().map(JobExecutionDto::from).toList(),
+                            PagedJobExecutionResponseDto.PaginationMetadata.from(executionPage)
+                    );
+                }));
+    }
+
+    /**
+     * Same document as {@link JobService#writeLegacyJobHistory}, emitted in chunks.
+     */
+    public Flux<byte[]> legacyJobHistory(Job job) {
+        String head = "{\"jobId\":" + toJson(job.getId()) + ",\"status\":" + toJson(job.getStatus()) + ",\"executions\":[";
+        return jsonArrayDocument(head, "]}",
+                jobExecutionRepository.findByJobIdOrderByExecutionTimeDesc(job.getId()), Function.identity());
+    }
+
+    /**
+     * Same output as {@link JobService#exportExecutions}, emitted in chunks and optionally gzip-compressed.
+     */
+    public Flux<byte[]> exportExecutions(String jobId, LocalDateTime from, LocalDateTime to,
+                                         ExportFormat format, boolean gzip) {
+        Flux<JobExecution> executions = jobExecutionRepository.findByJobIdAndExecutionTimeRange(jobId, from, to);
+
+        Flux<byte[]> chunks;
+        if (format == ExportFormat.CSV) {
+            chunks = executions.buffer(CHUNK_SIZE)
+                    .map(batch -> {
+                        StringBuilder sb = new StringBuilder(batch.size() * 96);
+                        batch.forEach(exec -> ExecutionCsv.appendRow(sb, exec));
+                        return sb.toString().getBytes(StandardCharsets.UTF_8);
+                    })
+                    .startWith(ExecutionCsv.HEADER.getBytes(StandardCharsets.UTF_8));
+        } else {
+            chunks = executions.buffer(CHUNK_SIZE)
+                    .map(batch -> {
+                        StringBuilder sb = new StringBuilder(batch.size() * 160);
+                        batch.forEach(exec -> sb.append(toJson(JobExecutionDto.from(exec))).append('\n'));
+                        return sb.toString().getBytes(StandardCharsets.UTF_8);
+                    });
+        }
+        return gzip ? gzip(chunks) : chunks;
+    }
+
+    public Mono<Job> createJob(JobRequestDto request) {
+        return Mono.fromCallable(() -> jobScheduler.scheduleNewJob(request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Job> updateJob(String jobId, JobRequestDto request) {
+        return Mono.fromCallable(() -> jobScheduler.updateJob(jobId, request))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public Mono<Void> stopJob(String jobId) {
+        return Mono.fromRunnable(() -> jobScheduler.stopJob(jobId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .then();
+    }
+
+    // head, elements separated by commas, tail - one chunk per CHUNK_SIZE elements
+    <T> Flux<byte[]> jsonArrayDocument(String head, String tail, Flux<T> elements, Function<T, ?> mapper) {
+        return elements.buffer(CHUNK_SIZE)
+                .index()
+                .map(indexed -> {
+                    StringBuilder sb = new StringBuilder();
+                    boolean first = indexed.getT1() == 0;
+                    for (T element : indexed.getT2()) {
+                        if (!first) {
+                            sb.append(',');
+                        }
+                        sb.append(toJson(mapper.apply(element)));
+                        first = false;
+                    }
+                    return sb.toString().getBytes(StandardCharsets.UTF_8);
+                })
+                .startWith(head.getBytes(StandardCharsets.UTF_8))
+                .concatWithValues(tail.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Compresses a chunk stream; each chunk is sync-flushed so it reaches the client as soon as it is emitted
+    static Flux<byte[]> gzip(Flux<byte[]> chunks) {
+        return Flux.defer(() -> {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            GZIPOutputStream gzipOut;
+            try {
+                gzipOut = new GZIPOutputStream(buffer, true);
+            } catch (IOException e) {
+                return Flux.error(e);
+            }
+            return chunks.map(chunk -> {
+                        try {
+                            gzipOut.write(chunk);
+                            gzipOut.flush();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                        return drain(buffer);
+                    })
+                    .concatWith(Mono.fromCallable(() -> {
+                        gzipOut.finish();
+                        return drain(buffer);
+                    }));
+        });
+    }
+
+    private static byte[] drain(ByteArrayOutputStream buffer) {
+        byte[] bytes = buffer.toByteArray();
+        buffer.reset();
+        return bytes;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
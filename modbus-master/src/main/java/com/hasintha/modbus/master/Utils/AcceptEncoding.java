@@ -0,0 +1,45 @@
+package com.hasintha.modbus.master.Utils;
+
+public class AcceptEncoding {
+
+     //Returns true if an Accept-Encoding header value allows a gzip response.
+     //"gzip" (or "x-gzip") is used with its own q-value, otherwise "*" applies; q=0 means "not acceptable".
+     //A malformed q-value counts as 0, since an uncompressed response is always acceptable.
+    public static boolean acceptsGzip(String header) {
+        if (header == null) {
+            return false;
+        }
+        Double gzipQuality = null;
+        Double wildcardQuality = null;
+        for (String element : header.split(",")) {
+            String[] parts = element.split(";");
+            String coding = parts[0].trim().toLowerCase();
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                gzipQuality = max(gzipQuality, quality(parts));
+            } else if (coding.equals("*")) {
+                wildcardQuality = max(wildcardQuality, quality(parts));
+            }
+        }
+        Double q = gzipQuality != null ? gzipQuality : wildcardQuality;
+        return q != null && q > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String param = parts[i].trim();
+            if (param.length() > 1 && (param.charAt(0) == 'q' || param.charAt(0) == 'Q')
+                    && param.substring(1).trim().startsWith("=")) {
+                try {
+                    return Double.parseDouble(param.substring(param.indexOf('=') + 1).trim());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static Double max(Double current, double q) {
+        return current == null ? q : Math.max(current, q);
+    }
+}
@@ -0,0 +1,37 @@
+package com.hasintha.modbus.master.Utils;
+
+import com.hasintha.modbus.master.Model.JobExecution;
+
+public class ExecutionCsv {
+
+    public static final String HEADER = "executionId,unitId,executionTime,status,cpu,ram,disk,sampleType,heldSamples\n";
+
+     //Appends one execution as a CSV row (with trailing newline) to the builder.
+     //Values are ids, ISO timestamps, status codes and numbers, so no quoting is needed.
+    public static void appendRow(StringBuilder sb, JobExecution exec) {
+        sb.append(exec.getId()).append(',');
+        if (exec.getUnitId() != null) {
+            sb.append(exec.getUnitId().intValue());
+        }
+        sb.append(',').append(exec.getExecutionTime())
+          .append(',').append(exec.getStatus());
+        JobExecution.Telemetry t = exec.getTelemetry();
+        if (t != null) {
+            sb.append(',').append(t.getCpu())
+              .append(',').append(t.getRam())
+              .append(',').append(t.getDisk());
+        } else {
+            // Failed polls have no telemetry
+            sb.append(",,,");
+        }
+        sb.append(',');
+        if (exec.getSampleType() != null) {
+            sb.append(exec.getSampleType());
+        }
+        sb.append(',');
+        if (exec.getHeldSamples() != null) {
+            sb.append(exec.getHeldSamples().intValue());
+        }
+        sb.append('\n');
+    }
+}
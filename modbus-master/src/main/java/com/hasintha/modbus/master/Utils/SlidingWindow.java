@@ -0,0 +1,140 @@
+package com.hasintha.modbus.master.Utils;
+
+/**
+ * Time-based sliding window over a stream of samples, backed by primitive ring buffers.
+ *
+ * add() and all aggregates are O(1) (amortized for min/max) and never allocate:
+ * - mean from a running sum
+ * - min/max from monotonic deques of sample sequence numbers
+ * - rate of change from the oldest and newest samples
+ *
+ * Samples older than the window are evicted on add. If more than {@code capacity} samples fall
+ * inside the window, the oldest ones are evicted early and the aggregates cover the newest
+ * {@code capacity} samples only. Not thread-safe.
+ */
+public class SlidingWindow {
+
+    private final long windowMillis;
+    private final int capacity;
+
+    // Samples ring: sample with sequence number s lives at index s % capacity
+    private final long[] times;
+    private final double[] values;
+    private long firstSeq = 0; // oldest sample still in the window
+    private long nextSeq = 0;  // sequence number of the next sample
+    private double sum = 0;
+
+    // Monotonic deques of sequence numbers (values increasing for min, decreasing for max)
+    private final long[] minDeque;
+    private int minHead = 0, minSize = 0;
+    private final long[] maxDeque;
+    private int maxHead = 0, maxSize = 0;
+
+    // Time of the first sample of the current run: the first one added, or the first after a gap that
+    // emptied the window. The window is covered once the run spans windowMillis.
+    private long runStartMillis;
+
+    public SlidingWindow(long windowMillis, int capacity) {
+        this.windowMillis = windowMillis;
+        this.capacity = capacity;
+        this.times = new long[capacity];
+        this.values = new double[capacity];
+        this.minDeque = new long[capacity];
+        this.maxDeque = new long[capacity];
+    }
+
+    public void add(long timeMillis, double value) {
+        // Evict samples that left the window, and the oldest one if the ring is full
+        while (size() > 0 && times[index(firstSeq)] <= timeMillis - windowMillis) {
+            evictOldest();
+        }
+        if (size() == 0) {
+            // Nothing seen for a whole window (or nothing at all yet): coverage starts again
+            runStartMillis = timeMillis;
+        }
+        if (size() == capacity) {
+            evictOldest();
+        }
+
+        long seq = nextSeq++;
+        times[index(seq)] = timeMillis;
+        values[index(seq)] = value;
+        sum += value;
+
+        // Min deque: drop larger-or-equal values from the back, they can never be the minimum again
+        while (minSize > 0 && values[index(minDeque[dequeIndex(minHead, minSize - 1)])] >= value) {
+            minSize--;
+        }
+        minDeque[dequeIndex(minHead, minSize++)] = seq;
+
+        while (maxSize > 0 && values[index(maxDeque[dequeIndex(maxHead, maxSize - 1)])] <= value) {
+            maxSize--;
+        }
+        maxDeque[dequeIndex(maxHead, maxSize++)] = seq;
+    }
+
+    public int size() {
+        return (int) (nextSeq - firstSeq);
+    }
+
+    // True once the current run of samples spans the whole window, with no gap of a full window in it.
+    // Capacity evictions don't reset coverage: the evicted samples were inside the window.
+    public boolean isFull() {
+        return size() > 0 && times[index(nextSeq - 1)] - runStartMillis >= windowMillis;
+    }
+
+    public double mean() {
+        return size() == 0 ? Double.NaN : sum / size();
+    }
+
+    public double min() {
+        return minSize == 0 ? Double.NaN : values[index(minDeque[minHead])];
+    }
+
+    public double max() {
+        return maxSize == 0 ? Double.NaN : values[index(maxDeque[maxHead])];
+    }
+
+    public double last() {
+        return size() == 0 ? Double.NaN : values[index(nextSeq - 1)];
+    }
+
+    /**
+     * Change per hour between the oldest and newest sample in the window (NaN with fewer than 2 samples).
+     */
+    public double ratePerHour() {
+        if (size() < 2) {
+            return Double.NaN;
+        }
+        long newest = nextSeq - 1;
+        long elapsed = times[index(newest)] - times[index(firstSeq)];
+        if (elapsed <= 0) {
+            return Double.NaN;
+        }
+        return (values[index(newest)] - values[index(firstSeq)]) * 3_600_000.0 / elapsed;
+    }
+
+    private void evictOldest() {
+        sum -= values[index(firstSeq)];
+        if (minSize > 0 && minDeque[minHead] == firstSeq) {
+            minHead = (minHead + 1) % capacity;
+            minSize--;
+        }
+        if (maxSize > 0 && maxDeque[maxHead] == firstSeq) {
+            maxHead = (maxHead + 1) % capacity;
+            maxSize--;
+        }
+        firstSeq++;
+        if (size() == 0) {
+            sum = 0; // Drop accumulated rounding error
+        }
+    }
+
+    private int index(long seq) {
+        return (int) (seq % capacity);
+    }
+
+    private int dequeIndex(int head, int offset) {
+        return (head + offset) % capacity;
+    }
+}
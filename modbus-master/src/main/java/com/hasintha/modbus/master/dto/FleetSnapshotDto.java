@@ -0,0 +1,34 @@
+package com.hasintha.modbus.master.dto;
+
+import com.hasintha.modbus.master.Model.JobExecution;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Response DTO for the fleet snapshot: latest known state of every job.
+ */
+public record FleetSnapshotDto(
+    long version,               // Pass back as "since" to get only jobs that changed after this snapshot
+    boolean delta,              // True if only changed jobs are included
+    LocalDateTime generatedAt,
+    List<JobState> jobs
+) {
+    /**
+     * Latest state of one job. Immutable, replaced as a whole on every change.
+     */
+    public record JobState(
+        String jobId,
+        String targetIp,
+        String jobStatus,       // "RUNNING" or "STOPPED"
+        long version,           // Snapshot version of the last change to this job
+        List<UnitState> units   // Latest execution per unit, empty if never polled
+    ) {}
+
+    public record UnitState(
+        Integer unitId,
+        String status,          // Status of the latest execution
+        LocalDateTime executionTime,
+        JobExecution.Telemetry telemetry  // Null if the latest execution failed
+    ) {}
+}
@@ -6,10 +6,25 @@ import java.time.LocalDateTime;
 
 public record JobExecutionDto(
         String executionId,
+        Integer unitId,
         LocalDateTime executionTime,
         String status,
-        JobExecution.Telemetry telemetry
+        JobExecution.Telemetry telemetry,
+        String sampleType,   // MEASURED / HEARTBEAT, null for jobs without a persistence policy
+        Integer heldSamples  // polls held (not stored) since the previous stored execution
 ) {
+    public static JobExecutionDto from(JobExecution exec) {
+        return new JobExecutionDto(
+                exec.getId(),
+                exec.getUnitId(),
+                exec.getExecutionTime(),
+                exec.getStatus(),
+                exec.getTelemetry(),
+                exec.getSampleType(),
+                exec.getHeldSamples()
+        );
+    }
+
 //    public record TelemetryDto(
 //            double cpu,
 //            double ram,
@@ -0,0 +1,17 @@
+package com.hasintha.modbus.master.dto;
+
+import com.hasintha.modbus.master.Model.Job;
+
+import java.util.List;
+
+/**
+ * Request body for creating (POST) and updating (PATCH) a job.
+ * On update, null/empty fields keep their current value.
+ */
+public record JobRequestDto(
+        String targetIp,          // Slave or RTU-over-TCP gateway address
+        String cronExpression,
+        List<Integer> unitIds,    // Unit ids behind the gateway, polled in this order (default: [1])
+        Integer busBaudRate,      // Serial bus rate behind the gateway (optional, paces requests)
+        Job.PersistencePolicy persistencePolicy  // Deadband/heartbeat storage policy (optional; {} clears it)
+) {}
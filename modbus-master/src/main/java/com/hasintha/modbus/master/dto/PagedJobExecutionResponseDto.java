@@ -1,5 +1,7 @@
 package com.hasintha.modbus.master.dto;
 
+import org.springframework.data.domain.Page;
+
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -30,5 +32,16 @@ public record PagedJobExecutionResponseDto(
         int totalPages,       // Total number of pages
         boolean first,        // Is this the first page?
         boolean last          // Is this the last page?
-    ) {}
+    ) {
+        public static PaginationMetadata from(Page<?> page) {
+            return new PaginationMetadata(
+                page.getNumber(),          // currentPage (0-based)
+                page.getSize(),            // pageSize
+                page.getTotalElements(),   // totalElements
+                page.getTotalPages(),      // totalPages
+                page.isFirst(),            // first
+                page.isLast()              // last
+            );
+        }
+    }
 }
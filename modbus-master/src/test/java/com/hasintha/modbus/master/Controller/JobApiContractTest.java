@@ -0,0 +1,335 @@
+package com.hasintha.modbus.master.Controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.hasintha.modbus.master.Exception.GlobalExceptionHandler;
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import com.hasintha.modbus.master.Repository.JobExecutionRepository;
+import com.hasintha.modbus.master.Repository.JobRepository;
+import com.hasintha.modbus.master.Repository.ReactiveJobExecutionRepository;
+import com.hasintha.modbus.master.Repository.ReactiveJobRepository;
+import com.hasintha.modbus.master.Service.JobCache;
+import com.hasintha.modbus.master.Service.JobScheduler;
+import com.hasintha.modbus.master.Service.JobService;
+import com.hasintha.modbus.master.Service.ReactiveJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Sends the same requests to {@link JobController} (servlet) and {@link ReactiveJobController} (WebFlux),
+ * backed by the same data, and checks that status, headers and body match.
+ */
+class JobApiContractTest {
+
+	private static final String JOB_ID = "job-1";
+	private static final LocalDateTime BASE = LocalDateTime.of(2024, 1, 1, 0, 0);
+	private static final int EXECUTIONS = 25;
+
+	// Headers that are part of the contract (ETag is compared where the request expects one)
+	private static final List<String> COMPARED_HEADERS = List.of(
+			HttpHeaders.CONTENT_ENCODING, HttpHeaders.CONTENT_DISPOSITION, HttpHeaders.VARY);
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+	private final List<JobExecution> newestFirst = new ArrayList<>();
+
+	private JobCache jobCache;
+	private MockMvc mvc;
+	private WebTestClient client;
+
+	@BeforeEach
+	void setUp() {
+		Job job = new Job();
+		job.setId(JOB_ID);
+		job.setTargetIp("10.0.0.5");
+		job.setCronExpression("*/5 * * * * *");
+		job.setStatus("RUNNING");
+		job.setCreatedAt(BASE.minusDays(1));
+		for (int i = EXECUTIONS - 1; i >= 0; i--) {
+			newestFirst.add(execution(i));
+		}
+
+		JobRepository jobRepository = mock(JobRepository.class);
+		when(jobRepository.findById(JOB_ID)).thenReturn(Optional.of(job));
+		when(jobRepository.findAll()).thenReturn(List.of(job));
+		jobCache = new JobCache(jobRepository, 100);
+		JobScheduler jobScheduler = mock(JobScheduler.class);
+
+		JobExecutionRepository executionRepository = mock(JobExecutionRepository.class);
+		when(executionRepository.streamByJobIdOrderByExecutionTimeDesc(JOB_ID))
+				.thenAnswer(invocation -> newestFirst.stream());
+		when(executionRepository.streamByJobIdAndExecutionTimeRange(eq(JOB_ID), any(), any()))
+				.thenAnswer(invocation -> inRange(invocation.getArgument(1), invocation.getArgument(2)).stream());
+		when(executionRepository.findByJobIdOrderByExecutionTimeDesc(eq(JOB_ID), any(Pageable.class)))
+				.thenAnswer(invocation -> {
+					Pageable pageable = invocation.getArgument(1);
+					return new PageImpl<>(page(pageable), pageable, newestFirst.size());
+				});
+
+		ReactiveJobRepository reactiveJobRepository = mock(ReactiveJobRepository.class);
+		when(reactiveJobRepository.findById(JOB_ID)).thenReturn(Mono.just(job));
+		when(reactiveJobRepository.findById("missing")).thenReturn(Mono.empty());
+		when(reactiveJobRepository.findAll()).thenReturn(Flux.just(job));
+
+		ReactiveJobExecutionRepository reactiveExecutionRepository = mock(ReactiveJobExecutionRepository.class);
+		when(reactiveExecutionRepository.findByJobIdOrderByExecutionTimeDesc(JOB_ID))
+				.thenAnswer(invocation -> Flux.fromIterable(newestFirst));
+		when(reactiveExecutionRepository.findByJobIdAndExecutionTimeRange(eq(JOB_ID), any(), any()))
+				.thenAnswer(invocation -> Flux.fromIterable(inRange(invocation.getArgument(1), invocation.getArgument(2))));
+		when(reactiveExecutionRepository.findByJobIdOrderByExecutionTimeDesc(eq(JOB_ID), any(Pageable.class)))
+				.thenAnswer(invocation -> Flux.fromIterable(page(invocation.getArgument(1))));
+		when(reactiveExecutionRepository.countByJobId(JOB_ID)).thenReturn(Mono.just((long) EXECUTIONS));
+
+		JobService jobService = new JobService(executionRepository, jobScheduler, jobCache, objectMapper);
+		mvc = MockMvcBuilders.standaloneSetup(new JobController(jobScheduler, jobCache, jobService))
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+
+		ReactiveJobService reactiveJobService = new ReactiveJobService(reactiveJobRepository,
+				reactiveExecutionRepository, jobScheduler, jobCache, objectMapper);
+		client = WebTestClient.bindToController(new ReactiveJobController(reactiveJobService))
+				.controllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void pagingMatches() throws Exception {
+		for (String query : List.of("", "?page=1&size=10", "?page=2&size=10", "?page=9&size=10",
+				"?page=-1&size=0", "?size=500")) {
+			Response response = assertSameResponse("/api/jobs/" + JOB_ID + query, new HttpHeaders(), true);
+			assertEquals(200, response.status(), query);
+		}
+
+		// Out-of-range parameters are clamped the same way
+		JsonNode clamped = objectMapper.readTree(servlet("/api/jobs/" + JOB_ID + "?page=-1&size=500", new HttpHeaders()).body());
+		assertEquals(0, clamped.get("pagination").get("currentPage").asInt());
+		assertEquals(100, clamped.get("pagination").get("pageSize").asInt());
+		assertEquals(EXECUTIONS, clamped.get("executions").size());
+
+		JsonNode lastPage = objectMapper.readTree(servlet("/api/jobs/" + JOB_ID + "?page=2&size=10", new HttpHeaders()).body());
+		assertEquals(5, lastPage.get("executions").size());
+		assertTrue(lastPage.get("pagination").get("last").asBoolean());
+	}
+
+	@Test
+	void jobListMatches() throws Exception {
+		assertEquals(200, assertSameResponse("/api/jobs", new HttpHeaders(), true).status());
+	}
+
+	@Test
+	void matchingETagIs304OnBothStacks() throws Exception {
+		HttpHeaders details = new HttpHeaders();
+		details.setIfNoneMatch(jobCache.getJobETag(JOB_ID, 1, 10));
+		Response response = assertSameResponse("/api/jobs/" + JOB_ID + "?page=1&size=10", details, true);
+		assertEquals(304, response.status());
+		assertEquals(0, response.body().length);
+
+		HttpHeaders list = new HttpHeaders();
+		list.setIfNoneMatch(jobCache.getListETag());
+		assertEquals(304, assertSameResponse("/api/jobs", list, true).status());
+	}
+
+	@Test
+	void unknownJobIs404OnBothStacks() throws Exception {
+		for (String uri : List.of("/api/jobs/missing", "/api/jobs/v0/missing", "/api/jobs/missing/executions/export")) {
+			assertEquals(404, assertSameResponse(uri, new HttpHeaders(), false).status(), uri);
+		}
+	}
+
+	@Test
+	void invalidExportParametersAre400OnBothStacks() throws Exception {
+		String export = "/api/jobs/" + JOB_ID + "/executions/export";
+		for (String query : List.of("?format=xml", "?from=2024-01-02T00:00:00&to=2024-01-01T00:00:00",
+				"?from=2024-01-01T00:00:00&to=2024-01-01T00:00:00")) {
+			assertEquals(400, assertSameResponse(export + query, new HttpHeaders(), false).status(), query);
+		}
+	}
+
+	@Test
+	void legacyDocumentMatches() throws Exception {
+		Response response = assertSameResponse("/api/jobs/v0/" + JOB_ID, new HttpHeaders(), false);
+
+		JsonNode document = objectMapper.readTree(response.body());
+		assertEquals(JOB_ID, document.get("jobId").asText());
+		assertEquals(EXECUTIONS, document.get("executions").size());
+	}
+
+	@Test
+	void exportBodiesMatch() throws Exception {
+		String export = "/api/jobs/" + JOB_ID + "/executions/export";
+
+		Response ndjson = assertSameResponse(export, new HttpHeaders(), false);
+		assertEquals(EXECUTIONS, ndjson.text().split("\n").length);
+
+		Response range = assertSameResponse(export + "?from=2024-01-01T00:05:00&to=2024-01-01T00:15:00",
+				new HttpHeaders(), false);
+		assertEquals(10, range.text().split("\n").length);
+
+		Response csv = assertSameResponse(export + "?format=csv", new HttpHeaders(), false);
+		assertEquals(EXECUTIONS + 1, csv.text().split("\n").length);
+	}
+
+	@Test
+	void gzipExportsMatch() throws Exception {
+		String export = "/api/jobs/" + JOB_ID + "/executions/export";
+		HttpHeaders acceptGzip = new HttpHeaders();
+		acceptGzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+		HttpHeaders refuseGzip = new HttpHeaders();
+		refuseGzip.set(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0");
+
+		Response plain = servlet(export, new HttpHeaders());
+		Response negotiated = assertSameResponse(export, acceptGzip, false);
+		assertEquals("gzip", negotiated.headers().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(plain.text(), gunzip(negotiated.body()));
+
+		Response refused = assertSameResponse(export, refuseGzip, false);
+		assertNull(refused.headers().getFirst(HttpHeaders.CONTENT_ENCODING));
+
+		Response csv = assertSameResponse(export + "?format=csv&gzip=true", new HttpHeaders(), false);
+		assertEquals(servlet(export + "?format=csv", new HttpHeaders()).text(), gunzip(csv.body()));
+	}
+
+	// Sends the request to both stacks and compares the responses; returns the servlet one
+	private Response assertSameResponse(String uri, HttpHeaders requestHeaders, boolean compareETag) throws Exception {
+		Response servlet = servlet(uri, requestHeaders);
+		Response reactive = reactive(uri, requestHeaders);
+
+		assertEquals(servlet.status(), reactive.status(), uri);
+		for (String name : COMPARED_HEADERS) {
+			assertEquals(servlet.headers().get(name), reactive.headers().get(name), uri + " " + name);
+		}
+		if (compareETag) {
+			assertEquals(servlet.headers().getETag(), reactive.headers().getETag(), uri);
+		}
+
+		MediaType servletType = servlet.headers().getContentType();
+		MediaType reactiveType = reactive.headers().getContentType();
+		assertEquals(servletType == null, reactiveType == null, uri);
+		if (servletType != null) {
+			assertTrue(servletType.equalsTypeAndSubtype(reactiveType), uri + ": " + servletType + " vs " + reactiveType);
+		}
+
+		if ("gzip".equals(servlet.headers().getFirst(HttpHeaders.CONTENT_ENCODING))) {
+			assertEquals(gunzip(servlet.body()), gunzip(reactive.body()), uri);
+		} else if (servletType != null && servletType.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+			assertEquals(json(servlet.body()), json(reactive.body()), uri);
+		} else {
+			assertEquals(servlet.text(), reactive.text(), uri);
+		}
+		return servlet;
+	}
+
+	private Response servlet(String uri, HttpHeaders requestHeaders) throws Exception {
+		MvcResult result = mvc.perform(get(uri).headers(requestHeaders)).andReturn();
+		if (result.getRequest().isAsyncStarted()) {
+			result = mvc.perform(asyncDispatch(result)).andReturn();
+		}
+		MockHttpServletResponse response = result.getResponse();
+		HttpHeaders headers = new HttpHeaders();
+		for (String name : response.getHeaderNames()) {
+			headers.put(name, new ArrayList<>(response.getHeaders(name)));
+		}
+		return new Response(response.getStatus(), headers, response.getContentAsByteArray());
+	}
+
+	private Response reactive(String uri, HttpHeaders requestHeaders) {
+		EntityExchangeResult<byte[]> result = client.get().uri(uri)
+				.headers(headers -> headers.addAll(requestHeaders))
+				.exchange()
+				.expectBody()
+				.returnResult();
+		byte[] body = result.getResponseBody();
+		return new Response(result.getStatus().value(), result.getResponseHeaders(), body != null ? body : new byte[0]);
+	}
+
+	// Error bodies carry the time they were created
+	private JsonNode json(byte[] body) throws Exception {
+		JsonNode node = objectMapper.readTree(body);
+		if (node instanceof ObjectNode object) {
+			object.remove("timestamp");
+		}
+		return node;
+	}
+
+	private static String gunzip(byte[] body) throws Exception {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private List<JobExecution> page(Pageable pageable) {
+		int from = (int) Math.min(pageable.getOffset(), newestFirst.size());
+		int to = Math.min(from + pageable.getPageSize(), newestFirst.size());
+		return newestFirst.subList(from, to);
+	}
+
+	// Oldest first, from inclusive, to exclusive (what the range query returns)
+	private List<JobExecution> inRange(LocalDateTime from, LocalDateTime to) {
+		List<JobExecution> result = new ArrayList<>();
+		for (int i = newestFirst.size() - 1; i >= 0; i--) {
+			LocalDateTime time = newestFirst.get(i).getExecutionTime();
+			if (!time.isBefore(from) && time.isBefore(to)) {
+				result.add(newestFirst.get(i));
+			}
+		}
+		return result;
+	}
+
+	private static JobExecution execution(int minute) {
+		JobExecution execution = new JobExecution();
+		execution.setId("e" + minute);
+		execution.setJobId(JOB_ID);
+		execution.setTargetIp("10.0.0.5");
+		execution.setUnitId(1 + minute % 2);
+		execution.setExecutionTime(BASE.plusMinutes(minute));
+		if (minute % 7 == 0) {
+			execution.setStatus("ERROR_TIMEOUT");
+		} else {
+			execution.setStatus("COMPLETED");
+			JobExecution.Telemetry telemetry = new JobExecution.Telemetry();
+			telemetry.setCpu(10 + minute);
+			telemetry.setRam(40.5);
+			telemetry.setDisk(60.25);
+			execution.setTelemetry(telemetry);
+		}
+		return execution;
+	}
+
+	private record Response(int status, HttpHeaders headers, byte[] body) {
+		String text() {
+			return new String(body, StandardCharsets.UTF_8);
+		}
+	}
+}
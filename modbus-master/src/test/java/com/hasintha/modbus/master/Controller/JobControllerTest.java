@@ -0,0 +1,200 @@
+package com.hasintha.modbus.master.Controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hasintha.modbus.master.Exception.GlobalExceptionHandler;
+import com.hasintha.modbus.master.Exception.JobNotFoundException;
+import com.hasintha.modbus.master.Model.ExportFormat;
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Repository.JobExecutionRepository;
+import com.hasintha.modbus.master.Repository.JobRepository;
+import com.hasintha.modbus.master.Service.JobCache;
+import com.hasintha.modbus.master.Service.JobScheduler;
+import com.hasintha.modbus.master.Service.JobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class JobControllerTest {
+
+	private static final String EXPORT = "/api/jobs/{jobId}/executions/export";
+
+	private JobCache jobCache;
+	private JobService jobService;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		jobCache = mock(JobCache.class);
+		jobService = mock(JobService.class);
+		JobController controller = new JobController(mock(JobScheduler.class), jobCache, jobService);
+		mvc = MockMvcBuilders.standaloneSetup(controller)
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	@Test
+	void exportPassesTheRangeBoundsThrough() throws Exception {
+		when(jobService.getJob("job-1")).thenReturn(job("job-1"));
+
+		MvcResult started = mvc.perform(get(EXPORT, "job-1")
+						.param("from", "2024-01-01T00:00:00")
+						.param("to", "2024-01-02T00:00:00")
+						.param("format", "csv"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mvc.perform(asyncDispatch(started))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(ExportFormat.CSV.getContentType()))
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+
+		// Inclusive from and exclusive to are applied by the repository query (see JobServiceTest)
+		verify(jobService).exportExecutions(eq("job-1"), eq(LocalDateTime.of(2024, 1, 1, 0, 0)),
+				eq(LocalDateTime.of(2024, 1, 2, 0, 0)), eq(ExportFormat.CSV), any(OutputStream.class));
+	}
+
+	@Test
+	void exportRejectsAnEmptyRange() throws Exception {
+		mvc.perform(get(EXPORT, "job-1")
+						.param("from", "2024-01-01T00:00:00")
+						.param("to", "2024-01-01T00:00:00"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.message").value("'from' must be before 'to'"));
+
+		verify(jobService, never()).exportExecutions(anyString(), any(), any(), any(), any());
+	}
+
+	@Test
+	void exportRejectsAnUnknownFormat() throws Exception {
+		mvc.perform(get(EXPORT, "job-1").param("format", "xml"))
+				.andExpect(status().isBadRequest())
+				.andExpect(jsonPath("$.error").value("Bad Request"))
+				.andExpect(jsonPath("$.message", containsString("Unsupported export format")));
+	}
+
+	@Test
+	void exportOfAnUnknownJobIs404BeforeStreaming() throws Exception {
+		when(jobService.getJob("missing")).thenThrow(new JobNotFoundException("missing"));
+
+		mvc.perform(get(EXPORT, "missing"))
+				.andExpect(request().asyncNotStarted())
+				.andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.message").value("Job not found with ID: missing"));
+
+		verify(jobService, never()).exportExecutions(anyString(), any(), any(), any(), any());
+	}
+
+	@Test
+	void exportIsCompressedOnlyWhenGzipIsAcceptable() throws Exception {
+		when(jobService.getJob("job-1")).thenReturn(job("job-1"));
+
+		mvc.perform(get(EXPORT, "job-1").header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+				.andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING));
+		mvc.perform(get(EXPORT, "job-1").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+				.andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+		mvc.perform(get(EXPORT, "job-1").param("gzip", "true"))
+				.andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+	}
+
+	@Test
+	void legacyDocumentOfAnUnknownJobIs404() throws Exception {
+		when(jobCache.findById("missing")).thenReturn(Optional.empty());
+
+		mvc.perform(get("/api/jobs/v0/{jobId}", "missing"))
+				.andExpect(status().isNotFound());
+
+		verify(jobService, never()).writeLegacyJobHistory(any(), any());
+	}
+
+	@Test
+	void pagedDetailsOfAnUnknownJobIs404() throws Exception {
+		when(jobService.getJobDetailsETag("missing", 0, 20)).thenReturn("\"job-missing\"");
+		when(jobService.getJobDetailsWithPagination("missing", 0, 20)).thenThrow(new JobNotFoundException("missing"));
+
+		mvc.perform(get("/api/jobs/{jobId}", "missing"))
+				.andExpect(status().isNotFound())
+				.andExpect(jsonPath("$.status").value(404));
+	}
+
+	@Test
+	void matchingETagOnTheJobListIs304WithoutQueries() throws Exception {
+		JobRepository jobRepository = mock(JobRepository.class);
+		JobCache cache = new JobCache(jobRepository, 100);
+		MockMvc cachedMvc = cachedMvc(cache, mock(JobExecutionRepository.class));
+		String etag = cache.getListETag();
+
+		// The cache is not complete, so anything but a 304 would query the repository
+		cachedMvc.perform(get("/api/jobs").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		verifyNoInteractions(jobRepository);
+
+		cache.put(job("job-1"));
+		cachedMvc.perform(get("/api/jobs").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, cache.getListETag()));
+	}
+
+	@Test
+	void matchingETagOnJobDetailsIs304WithoutQueries() throws Exception {
+		JobRepository jobRepository = mock(JobRepository.class);
+		JobExecutionRepository executionRepository = mock(JobExecutionRepository.class);
+		JobCache cache = new JobCache(jobRepository, 100);
+		MockMvc cachedMvc = cachedMvc(cache, executionRepository);
+		String etag = cache.getJobETag("job-1", 0, 20);
+
+		cachedMvc.perform(get("/api/jobs/{jobId}", "job-1").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+		verifyNoInteractions(jobRepository, executionRepository);
+
+		// A new execution invalidates the tag
+		cache.put(job("job-1"));
+		cache.markExecution("job-1");
+		when(executionRepository.findByJobIdOrderByExecutionTimeDesc("job-1", PageRequest.of(0, 20)))
+				.thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0));
+		cachedMvc.perform(get("/api/jobs/{jobId}", "job-1").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, cache.getJobETag("job-1", 0, 20)));
+	}
+
+	// Controller backed by a real JobCache and JobService, so only the repositories are mocked
+	private static MockMvc cachedMvc(JobCache cache, JobExecutionRepository executionRepository) {
+		JobService service = new JobService(executionRepository, mock(JobScheduler.class), cache, new ObjectMapper());
+		return MockMvcBuilders.standaloneSetup(new JobController(mock(JobScheduler.class), cache, service))
+				.setControllerAdvice(new GlobalExceptionHandler())
+				.build();
+	}
+
+	private static Job job(String id) {
+		Job job = new Job();
+		job.setId(id);
+		job.setStatus("RUNNING");
+		return job;
+	}
+}
@@ -0,0 +1,201 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Model.Alert;
+import com.hasintha.modbus.master.Model.AlertRule;
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import com.hasintha.modbus.master.Repository.AlertRepository;
+import com.hasintha.modbus.master.Repository.AlertRuleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AlertEngineTest {
+
+	private AlertRuleRepository ruleRepository;
+	private AlertRepository alertRepository;
+	private AlertEngine engine;
+	private final List<Alert> alerts = new ArrayList<>();
+	private int nextRuleId;
+
+	@BeforeEach
+	void setUp() {
+		ruleRepository = mock(AlertRuleRepository.class);
+		alertRepository = mock(AlertRepository.class);
+		when(ruleRepository.findAll()).thenReturn(List.of());
+		when(ruleRepository.save(any(AlertRule.class))).thenAnswer(invocation -> {
+			AlertRule rule = invocation.getArgument(0);
+			rule.setId("rule-" + nextRuleId++);
+			return rule;
+		});
+		// Saves run on the calling thread, so they are done when onExecution returns
+		engine = new AlertEngine(ruleRepository, alertRepository, 64, Runnable::run);
+		engine.subscribe().subscribe(alerts::add);
+	}
+
+	@Test
+	void oneAlertPerTransition() {
+		engine.addRule(threshold(AlertRule.Aggregation.LAST, 90));
+		Job job = job("a");
+
+		engine.onExecution(job, execution("a", 95));
+		engine.onExecution(job, execution("a", 97));
+		engine.onExecution(job, execution("a", 50));
+		engine.onExecution(job, execution("a", 40));
+		engine.onExecution(job, execution("a", 91));
+
+		assertEquals(List.of("FIRING", "RESOLVED", "FIRING"), states());
+		assertEquals(95.0, alerts.get(0).getValue());
+		verify(alertRepository, times(3)).save(any(Alert.class));
+	}
+
+	@Test
+	void publishedAlertCarriesTheStoredId() {
+		engine.addRule(threshold(AlertRule.Aggregation.LAST, 90));
+
+		engine.onExecution(job("a"), execution("a", 95));
+
+		assertNotNull(alerts.get(0).getId());
+		verify(alertRepository).save(alerts.get(0));
+	}
+
+	@Test
+	void consecutiveStatusCountsAndResets() {
+		AlertRule rule = new AlertRule();
+		rule.setType(AlertRule.Type.CONSECUTIVE_STATUS);
+		rule.setStatus("ERROR_TIMEOUT");
+		rule.setCount(3);
+		engine.addRule(rule);
+		Job job = job("a");
+
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+		engine.onExecution(job, status("a", "COMPLETED"));
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+		assertTrue(alerts.isEmpty());
+
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+		engine.onExecution(job, status("a", "COMPLETED"));
+
+		assertEquals(List.of("FIRING", "RESOLVED"), states());
+		assertEquals(3.0, alerts.get(0).getValue());
+	}
+
+	@Test
+	void ewmaSmoothsSingleSpikes() {
+		AlertRule rule = threshold(AlertRule.Aggregation.EWMA, 50);
+		rule.setEwmaAlpha(0.5);
+		engine.addRule(rule);
+		Job job = job("a");
+
+		// 0, then 0 + 0.5 * (90 - 0) = 45: one spike stays below the threshold
+		engine.onExecution(job, execution("a", 0));
+		engine.onExecution(job, execution("a", 90));
+		assertTrue(alerts.isEmpty());
+
+		// 45 + 0.5 * (90 - 45) = 67.5
+		engine.onExecution(job, execution("a", 90));
+		assertEquals(List.of("FIRING"), states());
+		assertEquals(67.5, alerts.get(0).getValue());
+	}
+
+	@Test
+	void rulesForAnotherJobAreSkipped() {
+		AlertRule rule = threshold(AlertRule.Aggregation.LAST, 90);
+		rule.setJobId("b");
+		engine.addRule(rule);
+
+		engine.onExecution(job("a"), execution("a", 95));
+		assertTrue(alerts.isEmpty());
+
+		engine.onExecution(job("b"), execution("b", 95));
+		assertEquals(1, alerts.size());
+		assertEquals("b", alerts.get(0).getJobId());
+	}
+
+	@Test
+	void addingARuleKeepsTheStateOfExistingRules() {
+		AlertRule consecutive = new AlertRule();
+		consecutive.setType(AlertRule.Type.CONSECUTIVE_STATUS);
+		consecutive.setStatus("ERROR_TIMEOUT");
+		consecutive.setCount(3);
+		engine.addRule(consecutive);
+		Job job = job("a");
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+
+		// The rule set changes between the second and third timeout
+		engine.addRule(threshold(AlertRule.Aggregation.LAST, 90));
+		engine.onExecution(job, status("a", "ERROR_TIMEOUT"));
+
+		assertEquals(List.of("FIRING"), states());
+		assertEquals(consecutive.getId(), alerts.get(0).getRuleId());
+	}
+
+	@Test
+	void failedSaveKeepsTheTransition() {
+		when(alertRepository.save(any(Alert.class))).thenThrow(new RuntimeException("Mongo unreachable"));
+		engine.addRule(threshold(AlertRule.Aggregation.LAST, 90));
+		engine.addRule(threshold(AlertRule.Aggregation.LAST, 80));
+		Job job = job("a");
+
+		engine.onExecution(job, execution("a", 95));
+		engine.onExecution(job, execution("a", 95));
+
+		// Both rules fired once; the failed save neither skipped the second rule nor re-raised the first
+		assertEquals(List.of("FIRING", "FIRING"), states());
+		verify(alertRepository, times(2)).save(any(Alert.class));
+	}
+
+	private List<String> states() {
+		return alerts.stream().map(Alert::getState).toList();
+	}
+
+	private static AlertRule threshold(AlertRule.Aggregation aggregation, double threshold) {
+		AlertRule rule = new AlertRule();
+		rule.setType(AlertRule.Type.THRESHOLD);
+		rule.setMetric(AlertRule.Metric.CPU);
+		rule.setOperator(AlertRule.Operator.GT);
+		rule.setAggregation(aggregation);
+		rule.setThreshold(threshold);
+		return rule;
+	}
+
+	private static Job job(String id) {
+		Job job = new Job();
+		job.setId(id);
+		job.setCronExpression("*/5 * * * * *");
+		return job;
+	}
+
+	private static JobExecution execution(String jobId, double cpu) {
+		JobExecution execution = status(jobId, "COMPLETED");
+		JobExecution.Telemetry telemetry = new JobExecution.Telemetry();
+		telemetry.setCpu(cpu);
+		execution.setTelemetry(telemetry);
+		return execution;
+	}
+
+	private static JobExecution status(String jobId, String status) {
+		JobExecution execution = new JobExecution();
+		execution.setJobId(jobId);
+		execution.setUnitId(1);
+		execution.setStatus(status);
+		execution.setExecutionTime(LocalDateTime.now());
+		return execution;
+	}
+}
@@ -0,0 +1,208 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadbandFilterTest {
+
+	private DeadbandFilter filter;
+
+	@BeforeEach
+	void setUp() {
+		filter = new DeadbandFilter();
+	}
+
+	@Test
+	void jobWithoutPolicyStoresEverything() {
+		Job job = job(null, null, null);
+		JobExecution first = completed(1, 50);
+		assertTrue(poll(job, first, 0));
+		assertTrue(poll(job, completed(1, 50), 1_000));
+		assertNull(first.getSampleType());
+		assertNull(first.getHeldSamples());
+	}
+
+	@Test
+	void firstExecutionIsStoredAsMeasured() {
+		JobExecution first = completed(1, 50);
+
+		assertTrue(poll(job(1.0, null, null), first, 0));
+		assertEquals(DeadbandFilter.MEASURED, first.getSampleType());
+		assertEquals(0, first.getHeldSamples().intValue());
+	}
+
+	@Test
+	void absoluteDeadbandHoldsSmallChanges() {
+		Job job = job(1.0, null, null);
+		poll(job, completed(1, 50), 0);
+
+		assertFalse(poll(job, completed(1, 50.5), 1_000));
+		// Exactly on the deadband is still inside it
+		assertFalse(poll(job, completed(1, 51), 2_000));
+		assertTrue(poll(job, completed(1, 51.5), 3_000));
+	}
+
+	@Test
+	void changesAreMeasuredAgainstTheLastStoredValue() {
+		Job job = job(1.0, null, null);
+		poll(job, completed(1, 50), 0);
+
+		// Slow drift: each step is small, but the total exceeds the deadband
+		assertFalse(poll(job, completed(1, 50.4), 1_000));
+		assertFalse(poll(job, completed(1, 50.8), 2_000));
+		assertTrue(poll(job, completed(1, 51.2), 3_000));
+	}
+
+	@Test
+	void percentDeadbandIsRelativeToTheLastStoredValue() {
+		Job job = job(null, 10.0, null);
+		poll(job, completed(1, 50), 0);
+
+		assertFalse(poll(job, completed(1, 54), 1_000));
+		assertTrue(poll(job, completed(1, 56), 2_000));
+	}
+
+	@Test
+	void withBothDeadbandsAChangeMustExceedBoth() {
+		// Absolute 1.0, 10% of 50 = 5.0
+		Job job = job(1.0, 10.0, null);
+		poll(job, completed(1, 50), 0);
+
+		assertFalse(poll(job, completed(1, 52), 1_000));
+		assertTrue(poll(job, completed(1, 56), 2_000));
+	}
+
+	@Test
+	void anyMetricCanTriggerAStore() {
+		Job job = job(1.0, null, null);
+		poll(job, completed(1, 50), 0);
+
+		JobExecution ramChanged = completed(1, 50);
+		ramChanged.getTelemetry().setRam(80);
+		assertTrue(poll(job, ramChanged, 1_000));
+	}
+
+	@Test
+	void statusChangeIsStored() {
+		Job job = job(100.0, null, null);
+		poll(job, completed(1, 50), 0);
+
+		assertTrue(poll(job, failed(1, "ERROR_TIMEOUT"), 1_000));
+		assertFalse(poll(job, failed(1, "ERROR_TIMEOUT"), 2_000));
+		assertTrue(poll(job, completed(1, 50), 3_000));
+	}
+
+	@Test
+	void heartbeatStoresSteadyValuesAndCountsHeldPolls() {
+		Job job = job(1.0, null, 60);
+		poll(job, completed(1, 50), 0);
+		assertFalse(poll(job, completed(1, 50), 20_000));
+		assertFalse(poll(job, completed(1, 50), 40_000));
+
+		JobExecution heartbeat = completed(1, 50);
+		assertTrue(poll(job, heartbeat, 60_000));
+		assertEquals(DeadbandFilter.HEARTBEAT, heartbeat.getSampleType());
+		assertEquals(2, heartbeat.getHeldSamples().intValue());
+
+		// The heartbeat restarts from the last stored execution
+		assertFalse(poll(job, completed(1, 50), 100_000));
+	}
+
+	@Test
+	void measuredSampleReportsHeldPollsSincePreviousStore() {
+		Job job = job(1.0, null, null);
+		poll(job, completed(1, 50), 0);
+		poll(job, completed(1, 50.2), 1_000);
+		poll(job, completed(1, 50.4), 2_000);
+		poll(job, completed(1, 50.6), 3_000);
+
+		JobExecution changed = completed(1, 60);
+		assertTrue(poll(job, changed, 4_000));
+		assertEquals(DeadbandFilter.MEASURED, changed.getSampleType());
+		assertEquals(3, changed.getHeldSamples().intValue());
+	}
+
+	@Test
+	void failedWriteDoesNotBecomeTheReference() {
+		Job job = job(1.0, null, null);
+		poll(job, completed(1, 50), 0);
+
+		JobExecution notWritten = completed(1, 60);
+		assertTrue(filter.shouldStore(job, notWritten, 1_000));
+		filter.commit(job, notWritten, false, 1_000);
+
+		// Still compared against 50, which is what the database has
+		JobExecution retry = completed(1, 60);
+		assertTrue(poll(job, retry, 2_000));
+		assertEquals(1, retry.getHeldSamples().intValue());
+	}
+
+	@Test
+	void forgetStartsOver() {
+		Job job = job(1.0, null, null);
+		poll(job, completed(1, 50), 0);
+		assertFalse(poll(job, completed(1, 50), 1_000));
+
+		filter.forget(job.getId());
+
+		JobExecution first = completed(1, 50);
+		assertTrue(poll(job, first, 2_000));
+		assertEquals(0, first.getHeldSamples().intValue());
+	}
+
+	@Test
+	void unitsAreTrackedSeparately() {
+		Job job = job(1.0, null, null);
+		poll(job, completed(1, 50), 0);
+
+		assertTrue(poll(job, completed(2, 50), 1_000));
+		assertFalse(poll(job, completed(1, 50), 2_000));
+		assertFalse(poll(job, completed(2, 50), 3_000));
+	}
+
+	// Decision plus a successful write, as JobScheduler does it
+	private boolean poll(Job job, JobExecution execution, long nowMillis) {
+		boolean store = filter.shouldStore(job, execution, nowMillis);
+		filter.commit(job, execution, store, nowMillis);
+		return store;
+	}
+
+	private static Job job(Double deadbandAbsolute, Double deadbandPercent, Integer heartbeatSeconds) {
+		Job job = new Job();
+		job.setId("job-1");
+		if (deadbandAbsolute != null || deadbandPercent != null || heartbeatSeconds != null) {
+			Job.PersistencePolicy policy = new Job.PersistencePolicy();
+			policy.setDeadbandAbsolute(deadbandAbsolute);
+			policy.setDeadbandPercent(deadbandPercent);
+			policy.setHeartbeatSeconds(heartbeatSeconds);
+			job.setPersistencePolicy(policy);
+		}
+		return job;
+	}
+
+	private static JobExecution completed(int unitId, double cpu) {
+		JobExecution execution = failed(unitId, "COMPLETED");
+		JobExecution.Telemetry telemetry = new JobExecution.Telemetry();
+		telemetry.setCpu(cpu);
+		telemetry.setRam(40);
+		telemetry.setDisk(70);
+		execution.setTelemetry(telemetry);
+		return execution;
+	}
+
+	private static JobExecution failed(int unitId, String status) {
+		JobExecution execution = new JobExecution();
+		execution.setJobId("job-1");
+		execution.setUnitId(unitId);
+		execution.setStatus(status);
+		return execution;
+	}
+
+}
@@ -0,0 +1,240 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import com.hasintha.modbus.master.dto.FleetSnapshotDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FleetStateStoreTest {
+
+	private FleetStateStore store;
+
+	@BeforeEach
+	void setUp() {
+		// Seeding is not exercised here, so no cache or repository is needed
+		store = new FleetStateStore(null, null);
+	}
+
+	@Test
+	void fullSnapshotContainsEveryJob() {
+		Job a = job("a");
+		store.onJobSaved(a);
+		store.onJobSaved(job("b"));
+		store.onPoll(a, List.of(execution(1, "COMPLETED", LocalDateTime.now())));
+
+		FleetSnapshotDto snapshot = store.snapshot(null, null, null);
+
+		assertFalse(snapshot.delta());
+		assertEquals(2, snapshot.jobs().size());
+		for (FleetSnapshotDto.JobState state : snapshot.jobs()) {
+			assertTrue(state.version() <= snapshot.version());
+		}
+		assertEquals(1, byId(snapshot).get("a").units().size());
+	}
+
+	@Test
+	void deltaReturnsOnlyJobsChangedSinceVersion() {
+		Job a = job("a");
+		Job b = job("b");
+		store.onJobSaved(a);
+		store.onJobSaved(b);
+		long version = store.snapshot(null, null, null).version();
+
+		store.onPoll(b, List.of(execution(1, "COMPLETED", LocalDateTime.now())));
+		FleetSnapshotDto delta = store.snapshot(null, null, version);
+
+		assertTrue(delta.delta());
+		assertEquals(1, delta.jobs().size());
+		assertEquals("b", delta.jobs().get(0).jobId());
+		assertTrue(store.snapshot(null, null, delta.version()).jobs().isEmpty());
+	}
+
+	@Test
+	void statusFilterKeepsMatchingUnitsOnly() {
+		Job a = job("a");
+		Job b = job("b");
+		LocalDateTime now = LocalDateTime.now();
+		store.onPoll(a, List.of(execution(1, "COMPLETED", now), execution(2, "ERROR_TIMEOUT", now)));
+		store.onPoll(b, List.of(execution(1, "COMPLETED", now)));
+
+		FleetSnapshotDto snapshot = store.snapshot("ERROR_TIMEOUT", null, null);
+
+		assertEquals(1, snapshot.jobs().size());
+		List<FleetSnapshotDto.UnitState> units = snapshot.jobs().get(0).units();
+		assertEquals(1, units.size());
+		assertEquals(2, units.get(0).unitId().intValue());
+	}
+
+	@Test
+	void filteredDeltaIncludesJobsThatLeftTheFilter() {
+		Job a = job("a");
+		Job b = job("b");
+		LocalDateTime now = LocalDateTime.now();
+		store.onPoll(a, List.of(execution(1, "ERROR_TIMEOUT", now)));
+		store.onPoll(b, List.of(execution(1, "ERROR_TIMEOUT", now)));
+		long version = store.snapshot("ERROR_TIMEOUT", null, null).version();
+
+		store.onPoll(a, List.of(execution(1, "COMPLETED", now)));
+		FleetSnapshotDto delta = store.snapshot("ERROR_TIMEOUT", null, version);
+
+		// "a" recovered: it is in the delta with no units, so the client drops its error
+		assertEquals(1, delta.jobs().size());
+		assertEquals("a", delta.jobs().get(0).jobId());
+		assertTrue(delta.jobs().get(0).units().isEmpty());
+		// A full filtered snapshot only lists the matching jobs
+		assertEquals(List.of("b"), store.snapshot("ERROR_TIMEOUT", null, null).jobs().stream()
+				.map(FleetSnapshotDto.JobState::jobId).toList());
+	}
+
+	@Test
+	void staleFilterKeepsUnitsNotPolledSince() {
+		Job a = job("a");
+		LocalDateTime now = LocalDateTime.now();
+		store.onPoll(a, List.of(execution(1, "COMPLETED", now.minusMinutes(10)), execution(2, "COMPLETED", now)));
+		store.onJobSaved(job("never-polled"));
+
+		Map<String, FleetSnapshotDto.JobState> jobs = byId(store.snapshot(null, now.minusMinutes(5), null));
+
+		assertEquals(2, jobs.size());
+		assertEquals(1, jobs.get("a").units().size());
+		assertEquals(1, jobs.get("a").units().get(0).unitId().intValue());
+		// A job that was never polled counts as stale
+		assertTrue(jobs.get("never-polled").units().isEmpty());
+	}
+
+	@Test
+	void jobChangesKeepUnitsAndPollsKeepJobStatus() {
+		Job running = job("a");
+		store.onPoll(running, List.of(execution(1, "COMPLETED", LocalDateTime.now())));
+
+		Job stopped = job("a");
+		stopped.setStatus("STOPPED");
+		store.onJobSaved(stopped);
+		FleetSnapshotDto.JobState state = store.snapshot(null, null, null).jobs().get(0);
+		assertEquals("STOPPED", state.jobStatus());
+		assertEquals(1, state.units().size());
+
+		// A poll that was already running still carries the old definition
+		store.onPoll(running, List.of(execution(1, "COMPLETED", LocalDateTime.now())));
+		assertEquals("STOPPED", store.snapshot(null, null, null).jobs().get(0).jobStatus());
+	}
+
+	@Test
+	void executionWithoutUnitIdMapsToDefaultUnit() {
+		Job a = job("a");
+		store.onPoll(a, List.of(execution(null, "COMPLETED", LocalDateTime.now())));
+
+		assertEquals(JobScheduler.DEFAULT_UNIT_ID,
+				store.snapshot(null, null, null).jobs().get(0).units().get(0).unitId().intValue());
+	}
+
+	@Test
+	void deltasUnderConcurrentPollsMissNoChange() throws Exception {
+		int jobCount = 8;
+		AtomicBoolean running = new AtomicBoolean(true);
+		List<Thread> writers = new ArrayList<>();
+		for (int i = 0; i < jobCount; i++) {
+			Job job = job("job-" + i);
+			Thread writer = new Thread(() -> {
+				for (int n = 0; n < 2_000; n++) {
+					store.onPoll(job, List.of(execution(1, "COMPLETED", LocalDateTime.now())));
+				}
+			});
+			writers.add(writer);
+			writer.start();
+		}
+
+		// Follow the store with deltas only, as a client would
+		Map<String, Long> seen = new HashMap<>();
+		Long since = null;
+		while (running.get()) {
+			FleetSnapshotDto delta = store.snapshot(null, null, since);
+			for (FleetSnapshotDto.JobState state : delta.jobs()) {
+				seen.merge(state.jobId(), state.version(), Math::max);
+			}
+			since = delta.version();
+			running.set(writers.stream().anyMatch(Thread::isAlive));
+		}
+		for (Thread writer : writers) {
+			writer.join();
+		}
+		for (FleetSnapshotDto.JobState state : store.snapshot(null, null, since).jobs()) {
+			seen.merge(state.jobId(), state.version(), Math::max);
+		}
+
+		for (FleetSnapshotDto.JobState state : store.snapshot(null, null, null).jobs()) {
+			assertEquals(state.version(), seen.get(state.jobId()), state.jobId());
+		}
+	}
+
+	@Test
+	void snapshotVersionAdvancesWhileOtherJobsArePolled() throws Exception {
+		AtomicBoolean running = new AtomicBoolean(true);
+		List<Thread> writers = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Job job = job("busy-" + i);
+			Thread writer = new Thread(() -> {
+				while (running.get()) {
+					store.onPoll(job, List.of(execution(1, "COMPLETED", LocalDateTime.now())));
+				}
+			});
+			writers.add(writer);
+			writer.start();
+		}
+		try {
+			Job a = job("a");
+			store.onPoll(a, List.of(execution(1, "COMPLETED", LocalDateTime.now())));
+			long changed = byId(store.snapshot(null, null, null)).get("a").version();
+
+			// Writers are never all idle here; the version must still catch up with the change
+			long deadline = System.nanoTime() + 5_000_000_000L;
+			long version;
+			do {
+				version = store.snapshot(null, null, null).version();
+			} while (version < changed && System.nanoTime() < deadline);
+			assertTrue(version >= changed, "snapshot version " + version + " stayed below " + changed);
+		} finally {
+			running.set(false);
+			for (Thread writer : writers) {
+				writer.join();
+			}
+		}
+	}
+
+	private static Map<String, FleetSnapshotDto.JobState> byId(FleetSnapshotDto snapshot) {
+		Map<String, FleetSnapshotDto.JobState> jobs = new HashMap<>();
+		for (FleetSnapshotDto.JobState state : snapshot.jobs()) {
+			jobs.put(state.jobId(), state);
+		}
+		return jobs;
+	}
+
+	private static Job job(String id) {
+		Job job = new Job();
+		job.setId(id);
+		job.setTargetIp("10.0.0.1");
+		job.setStatus("RUNNING");
+		return job;
+	}
+
+	private static JobExecution execution(Integer unitId, String status, LocalDateTime time) {
+		JobExecution execution = new JobExecution();
+		execution.setUnitId(unitId);
+		execution.setStatus(status);
+		execution.setExecutionTime(time);
+		return execution;
+	}
+
+}
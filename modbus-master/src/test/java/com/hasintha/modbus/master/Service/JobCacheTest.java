@@ -0,0 +1,133 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Repository.JobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class JobCacheTest {
+
+	private JobRepository repository;
+	private JobCache cache;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(JobRepository.class);
+		cache = new JobCache(repository, 2);
+	}
+
+	@Test
+	void findAllQueriesOnlyUntilTheCacheIsComplete() {
+		when(repository.findAll()).thenReturn(List.of(job("a", "RUNNING"), job("b", "RUNNING")));
+
+		assertEquals(2, cache.findAll().size());
+		assertEquals(2, cache.findAll().size());
+
+		verify(repository, times(1)).findAll();
+	}
+
+	@Test
+	void evictionClearsComplete() {
+		when(repository.findAll()).thenReturn(List.of(job("a", "RUNNING"), job("b", "RUNNING")));
+		cache.findAll();
+		assertNotNull(cache.getAllIfComplete());
+
+		// Third job with max-size 2: "a" is evicted, so the cache no longer holds every job
+		cache.put(job("c", "RUNNING"));
+
+		assertNull(cache.getAllIfComplete());
+		assertTrue(cache.getIfPresent("a").isEmpty());
+		cache.findAll();
+		verify(repository, times(2)).findAll();
+	}
+
+	@Test
+	void loadAllIsIgnoredAfterAConcurrentPut() {
+		long versionBefore = cache.getListVersion();
+		// Saved while the list was being read; the read result doesn't contain it
+		cache.put(job("new", "RUNNING"));
+
+		cache.loadAll(List.of(job("a", "RUNNING")), versionBefore);
+
+		assertNull(cache.getAllIfComplete());
+		assertTrue(cache.getIfPresent("new").isPresent());
+	}
+
+	@Test
+	void loadAllWithoutConcurrentChangesCompletesTheCache() {
+		long versionBefore = cache.getListVersion();
+
+		cache.loadAll(List.of(job("a", "RUNNING")), versionBefore);
+
+		assertEquals(1, cache.getAllIfComplete().size());
+	}
+
+	@Test
+	void loadDoesNotOverwriteANewerEntry() {
+		cache.put(job("a", "STOPPED"));
+
+		// A read that started before the stop finishes after it
+		cache.load(job("a", "RUNNING"));
+
+		assertEquals("STOPPED", cache.getIfPresent("a").get().getStatus());
+	}
+
+	@Test
+	void findByIdLoadsOnceAndReturnsCopies() {
+		when(repository.findById("a")).thenReturn(Optional.of(job("a", "RUNNING")));
+
+		cache.findById("a").get().setStatus("CHANGED");
+
+		assertEquals("RUNNING", cache.findById("a").get().getStatus());
+		verify(repository, times(1)).findById("a");
+	}
+
+	@Test
+	void listETagChangesOnlyWhenAJobIsSaved() {
+		String initial = cache.getListETag();
+
+		cache.markExecution("a");
+		assertEquals(initial, cache.getListETag());
+
+		cache.put(job("a", "RUNNING"));
+		assertNotEquals(initial, cache.getListETag());
+	}
+
+	@Test
+	void jobETagChangesOnSaveAndOnNewExecution() {
+		String initial = cache.getJobETag("a", 0, 20);
+
+		cache.put(job("a", "RUNNING"));
+		String afterSave = cache.getJobETag("a", 0, 20);
+		assertNotEquals(initial, afterSave);
+
+		cache.markExecution("a");
+		String afterExecution = cache.getJobETag("a", 0, 20);
+		assertNotEquals(afterSave, afterExecution);
+
+		// Other jobs and other pages have their own tags
+		assertEquals(afterExecution, cache.getJobETag("a", 0, 20));
+		assertNotEquals(afterExecution, cache.getJobETag("a", 1, 20));
+		assertNotEquals(afterExecution, cache.getJobETag("b", 0, 20));
+	}
+
+	private static Job job(String id, String status) {
+		Job job = new Job();
+		job.setId(id);
+		job.setStatus(status);
+		return job;
+	}
+}
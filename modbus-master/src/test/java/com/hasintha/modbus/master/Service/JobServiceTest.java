@@ -0,0 +1,153 @@
+package com.hasintha.modbus.master.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hasintha.modbus.master.Model.ExportFormat;
+import com.hasintha.modbus.master.Model.Job;
+import com.hasintha.modbus.master.Model.JobExecution;
+import com.hasintha.modbus.master.Repository.JobExecutionRepository;
+import com.hasintha.modbus.master.Utils.ExecutionCsv;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobServiceTest {
+
+	private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+	private static final LocalDateTime TO = LocalDateTime.of(2024, 1, 2, 0, 0);
+
+	private final ObjectMapper objectMapper = new ObjectMapper()
+			.registerModule(new JavaTimeModule())
+			.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+	private JobExecutionRepository repository;
+	private JobService jobService;
+
+	@BeforeEach
+	void setUp() {
+		repository = mock(JobExecutionRepository.class);
+		jobService = new JobService(repository, null, null, objectMapper);
+	}
+
+	@Test
+	void ndjsonWritesOneExecutionPerLine() throws Exception {
+		when(repository.streamByJobIdAndExecutionTimeRange("job-1", FROM, TO))
+				.thenReturn(Stream.of(execution("e1", 1, 10), execution("e2", 2, 20), execution("e3", 1, 30)));
+
+		String body = export(ExportFormat.NDJSON);
+
+		assertTrue(body.endsWith("\n"));
+		String[] lines = body.split("\n");
+		assertEquals(3, lines.length);
+		for (String line : lines) {
+			// Each line is a complete JSON object, without a root value separator in front of it
+			assertTrue(line.startsWith("{"), line);
+			assertTrue(line.endsWith("}"), line);
+		}
+		JsonNode second = objectMapper.readTree(lines[1]);
+		assertEquals("e2", second.get("executionId").asText());
+		assertEquals(2, second.get("unitId").asInt());
+		assertEquals(20.0, second.get("telemetry").get("cpu").asDouble());
+	}
+
+	@Test
+	void csvWritesHeaderAndOneRowPerExecution() throws Exception {
+		JobExecution failed = execution("e2", 1, 0);
+		failed.setStatus("FAILED_TIMEOUT");
+		failed.setTelemetry(null);
+		when(repository.streamByJobIdAndExecutionTimeRange("job-1", FROM, TO))
+				.thenReturn(Stream.of(execution("e1", 1, 10), failed));
+
+		String body = export(ExportFormat.CSV);
+
+		String[] lines = body.split("\n");
+		assertEquals(3, lines.length);
+		assertEquals(ExecutionCsv.HEADER.trim(), lines[0]);
+		assertEquals("e1,1,2024-01-01T10:00,COMPLETED,10.0,40.0,60.0,,", lines[1]);
+		assertEquals("e2,1,2024-01-01T10:00,FAILED_TIMEOUT,,,,,", lines[2]);
+	}
+
+	@Test
+	void exportClosesTheCursor() throws Exception {
+		AtomicBoolean closed = new AtomicBoolean();
+		when(repository.streamByJobIdAndExecutionTimeRange("job-1", FROM, TO))
+				.thenReturn(Stream.of(execution("e1", 1, 10)).onClose(() -> closed.set(true)));
+
+		export(ExportFormat.NDJSON);
+
+		assertTrue(closed.get());
+	}
+
+	@Test
+	void emptyRangeExportsOnlyTheCsvHeader() throws Exception {
+		when(repository.streamByJobIdAndExecutionTimeRange("job-1", FROM, TO)).thenReturn(Stream.empty());
+
+		assertEquals(ExecutionCsv.HEADER, export(ExportFormat.CSV));
+	}
+
+	@Test
+	void rangeQueryIncludesFromAndExcludesTo() throws Exception {
+		Query query = JobExecutionRepository.class
+				.getMethod("streamByJobIdAndExecutionTimeRange", String.class, LocalDateTime.class, LocalDateTime.class)
+				.getAnnotation(Query.class);
+
+		String filter = query.value().replace(" ", "");
+		assertTrue(filter.contains("'executionTime':{$gte:?1,$lt:?2}"), filter);
+	}
+
+	@Test
+	void legacyJobHistoryIsOneJsonDocument() throws Exception {
+		Job job = new Job();
+		job.setId("job-1");
+		job.setStatus("RUNNING");
+		when(repository.streamByJobIdOrderByExecutionTimeDesc("job-1"))
+				.thenReturn(Stream.of(execution("e2", 1, 20), execution("e1", 1, 10)));
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		jobService.writeLegacyJobHistory(job, out);
+
+		JsonNode document = objectMapper.readTree(out.toByteArray());
+		assertEquals("job-1", document.get("jobId").asText());
+		assertEquals("RUNNING", document.get("status").asText());
+		JsonNode executions = document.get("executions");
+		assertEquals(2, executions.size());
+		// Raw entities, newest first
+		assertEquals("e2", executions.get(0).get("id").asText());
+		assertEquals("job-1", executions.get(0).get("jobId").asText());
+		assertEquals("e1", executions.get(1).get("id").asText());
+	}
+
+	private String export(ExportFormat format) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		jobService.exportExecutions("job-1", FROM, TO, format, out);
+		return out.toString(StandardCharsets.UTF_8);
+	}
+
+	private static JobExecution execution(String id, int unitId, double cpu) {
+		JobExecution execution = new JobExecution();
+		execution.setId(id);
+		execution.setJobId("job-1");
+		execution.setUnitId(unitId);
+		execution.setExecutionTime(LocalDateTime.of(2024, 1, 1, 10, 0));
+		execution.setStatus("COMPLETED");
+		JobExecution.Telemetry telemetry = new JobExecution.Telemetry();
+		telemetry.setCpu(cpu);
+		telemetry.setRam(40);
+		telemetry.setDisk(60);
+		execution.setTelemetry(telemetry);
+		return execution;
+	}
+}
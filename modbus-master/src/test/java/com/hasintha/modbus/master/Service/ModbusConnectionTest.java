@@ -0,0 +1,170 @@
+package com.hasintha.modbus.master.Service;
+
+import com.hasintha.modbus.master.Exception.ModbusException;
+import com.hasintha.modbus.master.Utils.ModbusCrc;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ModbusConnectionTest {
+
+	@Test
+	void silentIntervalAt9600Baud() {
+		// 3.5 chars * 11 bits / 9600 baud = 4.0104 ms
+		assertEquals(4_010_416L, ModbusConnection.silentIntervalNanos(9600));
+	}
+
+	@Test
+	void silentIntervalAt19200Baud() {
+		assertEquals(2_005_208L, ModbusConnection.silentIntervalNanos(19200));
+	}
+
+	@Test
+	void silentIntervalIsFixedAbove19200Baud() {
+		assertEquals(1_750_000L, ModbusConnection.silentIntervalNanos(115200));
+	}
+
+	@Test
+	void noPacingWithoutBaudRate() {
+		assertEquals(0L, ModbusConnection.silentIntervalNanos(null));
+	}
+
+	@Test
+	void readsScaledRegisterValue() throws Exception {
+		FakeSocket socket = new FakeSocket(valueFrame(7, 4550));
+		ModbusConnection connection = new ModbusConnection(socket, null);
+
+		assertEquals(45.5, connection.readRegister(7, 0x04), 0.0001);
+
+		byte[] request = socket.written.toByteArray();
+		assertEquals(8, request.length);
+		assertEquals(7, request[0]);
+		assertEquals(0x03, request[1]);
+		assertEquals(0x04, request[3]);
+		assertEquals(ModbusCrc.calculate(request, 6),
+				((request[7] & 0xFF) << 8) | (request[6] & 0xFF));
+	}
+
+	@Test
+	void readsExactlyOneFramePerRequest() throws Exception {
+		FakeSocket socket = new FakeSocket(concat(valueFrame(1, 1000), valueFrame(2, 2000)));
+		ModbusConnection connection = new ModbusConnection(socket, null);
+
+		assertEquals(10.0, connection.readRegister(1, 0x04), 0.0001);
+		assertEquals(20.0, connection.readRegister(2, 0x04), 0.0001);
+	}
+
+	@Test
+	void exceptionFrameIsConsumedAndReported() throws Exception {
+		FakeSocket socket = new FakeSocket(concat(exceptionFrame(1, 0x02), valueFrame(1, 1234)));
+		ModbusConnection connection = new ModbusConnection(socket, null);
+
+		ModbusException e = assertThrows(ModbusException.class, () -> connection.readRegister(1, 0x04));
+		assertTrue(e.getMessage().contains("exception code 2"));
+		// The 5-byte exception frame must not leave bytes behind for the next request
+		assertEquals(12.34, connection.readRegister(1, 0x06), 0.0001);
+	}
+
+	@Test
+	void rejectsResponseFromAnotherUnit() throws Exception {
+		ModbusConnection connection = new ModbusConnection(new FakeSocket(valueFrame(3, 1000)), null);
+
+		ModbusException e = assertThrows(ModbusException.class, () -> connection.readRegister(2, 0x04));
+		assertTrue(e.getMessage().contains("expected 2"));
+	}
+
+	@Test
+	void rejectsUnexpectedByteCount() throws Exception {
+		byte[] frame = new byte[9];
+		frame[0] = 1;
+		frame[1] = 0x03;
+		frame[2] = 4; // Two registers, but one was requested
+		ModbusCrc.appendCrc(frame, 7);
+		ModbusConnection connection = new ModbusConnection(new FakeSocket(frame), null);
+
+		ModbusException e = assertThrows(ModbusException.class, () -> connection.readRegister(1, 0x04));
+		assertTrue(e.getMessage().contains("byte count"));
+	}
+
+	@Test
+	void rejectsCrcMismatch() throws Exception {
+		byte[] frame = valueFrame(1, 1000);
+		frame[6] ^= 0x01;
+		ModbusConnection connection = new ModbusConnection(new FakeSocket(frame), null);
+
+		ModbusException e = assertThrows(ModbusException.class, () -> connection.readRegister(1, 0x04));
+		assertTrue(e.getMessage().contains("CRC"));
+	}
+
+	@Test
+	void truncatedFrameIsEof() throws Exception {
+		byte[] frame = valueFrame(1, 1000);
+		byte[] truncated = new byte[4];
+		System.arraycopy(frame, 0, truncated, 0, truncated.length);
+		ModbusConnection connection = new ModbusConnection(new FakeSocket(truncated), null);
+
+		assertThrows(EOFException.class, () -> connection.readRegister(1, 0x04));
+	}
+
+	private static byte[] valueFrame(int unitId, int rawValue) {
+		byte[] frame = new byte[7];
+		frame[0] = (byte) unitId;
+		frame[1] = 0x03;
+		frame[2] = 2;
+		frame[3] = (byte) (rawValue >> 8);
+		frame[4] = (byte) rawValue;
+		ModbusCrc.appendCrc(frame, 5);
+		return frame;
+	}
+
+	private static byte[] exceptionFrame(int unitId, int code) {
+		byte[] frame = new byte[5];
+		frame[0] = (byte) unitId;
+		frame[1] = (byte) 0x83;
+		frame[2] = (byte) code;
+		ModbusCrc.appendCrc(frame, 3);
+		return frame;
+	}
+
+	private static byte[] concat(byte[] a, byte[] b) {
+		byte[] result = new byte[a.length + b.length];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+
+	// Socket that replays canned gateway bytes and records the requests
+	private static class FakeSocket extends Socket {
+		private final InputStream in;
+		private final ByteArrayOutputStream written = new ByteArrayOutputStream();
+
+		FakeSocket(byte[] responses) {
+			this.in = new ByteArrayInputStream(responses);
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return in;
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return written;
+		}
+
+		@Override
+		public synchronized void close() throws IOException {
+		}
+	}
+
+}
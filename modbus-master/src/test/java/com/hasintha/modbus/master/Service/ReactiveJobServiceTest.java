@@ -0,0 +1,131 @@
+package com.hasintha.modbus.master.Service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReactiveJobServiceTest {
+
+	private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+	private ReactiveJobService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new ReactiveJobService(null, null, null, null, objectMapper);
+	}
+
+	@Test
+	void jsonArrayDocumentWithoutElements() throws Exception {
+		List<byte[]> chunks = service.jsonArrayDocument("{\"items\":[", "]}", Flux.empty(), Function.identity())
+				.collectList().block();
+
+		assertEquals(2, chunks.size());
+		assertEquals("{\"items\":[]}", concat(chunks));
+		assertEquals(0, objectMapper.readTree(concat(chunks)).get("items").size());
+	}
+
+	@Test
+	void jsonArrayDocumentEmitsOneChunkPerBatch() throws Exception {
+		int count = ReactiveJobService.CHUNK_SIZE * 2 + 1;
+		Flux<Integer> elements = Flux.range(0, count);
+
+		List<byte[]> chunks = service.jsonArrayDocument("{\"items\":[", "]}", elements, i -> "v" + i)
+				.collectList().block();
+
+		// head, three batches, tail
+		assertEquals(5, chunks.size());
+		assertTrue(new String(chunks.get(1), StandardCharsets.UTF_8).startsWith("\"v0\""));
+		// Later batches continue the array
+		assertTrue(new String(chunks.get(2), StandardCharsets.UTF_8).startsWith(","));
+		assertTrue(new String(chunks.get(3), StandardCharsets.UTF_8).startsWith(","));
+
+		JsonNode items = objectMapper.readTree(concat(chunks)).get("items");
+		assertEquals(count, items.size());
+		for (int i = 0; i < count; i++) {
+			assertEquals("v" + i, items.get(i).asText());
+		}
+	}
+
+	@Test
+	void gzipOutputDecompressesToTheInput() throws Exception {
+		List<String> input = IntStream.range(0, 50).mapToObj(i -> "line " + i + "\n").toList();
+
+		List<byte[]> compressed = ReactiveJobService.gzip(Flux.fromIterable(input).map(ReactiveJobServiceTest::bytes))
+				.collectList().block();
+
+		// One output chunk per input chunk, plus the trailer
+		assertEquals(input.size() + 1, compressed.size());
+		assertEquals(String.join("", input), gunzip(compressed));
+	}
+
+	@Test
+	void gzipFlushesEveryChunk() throws Exception {
+		List<byte[]> compressed = ReactiveJobService.gzip(Flux.just(bytes("first\n"), bytes("second\n")))
+				.collectList().block();
+
+		// The first chunk alone (10-byte gzip header + deflate data) already decodes to the first input
+		byte[] first = compressed.get(0);
+		Inflater inflater = new Inflater(true);
+		inflater.setInput(first, 10, first.length - 10);
+		byte[] out = new byte[64];
+		int length = inflater.inflate(out);
+		inflater.end();
+
+		assertEquals("first\n", new String(out, 0, length, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void gzipOfNoChunksIsAnEmptyStream() throws Exception {
+		List<byte[]> compressed = ReactiveJobService.gzip(Flux.empty()).collectList().block();
+
+		assertEquals("", gunzip(compressed));
+	}
+
+	@Test
+	void gzipStartsAFreshStreamPerSubscription() throws Exception {
+		Flux<byte[]> compressed = ReactiveJobService.gzip(Flux.just(bytes("a\n"), bytes("b\n")));
+
+		List<byte[]> first = compressed.collectList().block();
+		List<byte[]> second = compressed.collectList().block();
+
+		assertArrayEquals(concatBytes(first), concatBytes(second));
+		assertEquals("a\nb\n", gunzip(second));
+	}
+
+	private static byte[] bytes(String s) {
+		return s.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static String concat(List<byte[]> chunks) {
+		return new String(concatBytes(chunks), StandardCharsets.UTF_8);
+	}
+
+	private static byte[] concatBytes(List<byte[]> chunks) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		chunks.forEach(out::writeBytes);
+		return out.toByteArray();
+	}
+
+	private static String gunzip(List<byte[]> chunks) throws Exception {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(concatBytes(chunks)))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package com.hasintha.modbus.master.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AcceptEncodingTest {
+
+	@Test
+	void gzipIsAcceptedWhenListed() {
+		assertTrue(AcceptEncoding.acceptsGzip("gzip"));
+		assertTrue(AcceptEncoding.acceptsGzip("deflate, gzip, br"));
+		assertTrue(AcceptEncoding.acceptsGzip("GZIP"));
+		assertTrue(AcceptEncoding.acceptsGzip("x-gzip"));
+		assertTrue(AcceptEncoding.acceptsGzip("br;q=1.0, gzip;q=0.8"));
+	}
+
+	@Test
+	void zeroQualityRefusesGzip() {
+		assertFalse(AcceptEncoding.acceptsGzip("gzip;q=0"));
+		assertFalse(AcceptEncoding.acceptsGzip("gzip; q=0.0, identity"));
+		assertFalse(AcceptEncoding.acceptsGzip("gzip;Q=0.000"));
+	}
+
+	@Test
+	void wildcardAppliesOnlyWhenGzipIsNotListed() {
+		assertTrue(AcceptEncoding.acceptsGzip("*"));
+		assertTrue(AcceptEncoding.acceptsGzip("identity, *;q=0.5"));
+		assertFalse(AcceptEncoding.acceptsGzip("*;q=0"));
+		assertFalse(AcceptEncoding.acceptsGzip("gzip;q=0, *"));
+		assertTrue(AcceptEncoding.acceptsGzip("gzip;q=0.1, *;q=0"));
+	}
+
+	@Test
+	void missingOrUnrelatedHeaderRefusesGzip() {
+		assertFalse(AcceptEncoding.acceptsGzip(null));
+		assertFalse(AcceptEncoding.acceptsGzip(""));
+		assertFalse(AcceptEncoding.acceptsGzip("identity"));
+		assertFalse(AcceptEncoding.acceptsGzip("deflate, br"));
+		// Only the coding name counts, not parameters that happen to contain "gzip"
+		assertFalse(AcceptEncoding.acceptsGzip("br;x=gzip"));
+	}
+
+	@Test
+	void malformedQualityRefusesGzip() {
+		assertFalse(AcceptEncoding.acceptsGzip("gzip;q=high"));
+		assertTrue(AcceptEncoding.acceptsGzip("gzip;level=9"));
+	}
+}
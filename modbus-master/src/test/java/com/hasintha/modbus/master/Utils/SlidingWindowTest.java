@@ -0,0 +1,137 @@
+package com.hasintha.modbus.master.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SlidingWindowTest {
+
+	@Test
+	void emptyWindowHasNoAggregates() {
+		SlidingWindow window = new SlidingWindow(10_000, 16);
+
+		assertEquals(0, window.size());
+		assertFalse(window.isFull());
+		assertTrue(Double.isNaN(window.mean()));
+		assertTrue(Double.isNaN(window.min()));
+		assertTrue(Double.isNaN(window.max()));
+		assertTrue(Double.isNaN(window.ratePerHour()));
+	}
+
+	@Test
+	void aggregatesAfterTimeEviction() {
+		SlidingWindow window = new SlidingWindow(10_000, 16);
+		window.add(0, 50);
+		window.add(4_000, 10);
+		window.add(8_000, 30);
+		assertFalse(window.isFull());
+		assertEquals(10, window.min(), 0);
+		assertEquals(50, window.max(), 0);
+
+		// 0 ms ages out (older than 12_000 - 10_000), the window now holds 4_000..12_000
+		window.add(12_000, 20);
+		assertTrue(window.isFull());
+		assertEquals(3, window.size());
+		assertEquals(10, window.min(), 0);
+		assertEquals(30, window.max(), 0);
+		assertEquals(20, window.mean(), 1e-9);
+		assertEquals(20, window.last(), 0);
+		// (20 - 10) over 8 s
+		assertEquals(10 * 3_600_000.0 / 8_000, window.ratePerHour(), 1e-9);
+
+		// Min and max both age out
+		window.add(16_000, 25);
+		assertEquals(20, window.min(), 0);
+		assertEquals(30, window.max(), 0);
+	}
+
+	@Test
+	void capacityEvictionStillFillsWindow() {
+		// 1 s samples in a 60 s window, but room for only 10 samples
+		SlidingWindow window = new SlidingWindow(60_000, 10);
+		for (int i = 0; i < 60; i++) {
+			window.add(i * 1000L, i);
+			assertFalse(window.isFull());
+		}
+		window.add(60_000, 60);
+
+		assertTrue(window.isFull());
+		assertEquals(10, window.size());
+		// Aggregates cover the newest 10 samples (51..60)
+		assertEquals(51, window.min(), 0);
+		assertEquals(60, window.max(), 0);
+		assertEquals(55.5, window.mean(), 1e-9);
+		assertEquals(3600, window.ratePerHour(), 1e-9);
+	}
+
+	@Test
+	void gapLongerThanWindowResetsCoverage() {
+		SlidingWindow window = new SlidingWindow(10_000, 16);
+		for (int i = 0; i <= 10; i++) {
+			window.add(i * 1000L, 95);
+		}
+		assertTrue(window.isFull());
+
+		// Outage longer than the window: the single sample after it doesn't cover the window
+		window.add(60_000, 97);
+		assertEquals(1, window.size());
+		assertFalse(window.isFull());
+		assertEquals(97, window.min(), 0);
+
+		window.add(65_000, 97);
+		assertFalse(window.isFull());
+		window.add(70_000, 97);
+		assertTrue(window.isFull());
+	}
+
+	@Test
+	void gapShorterThanWindowKeepsCoverage() {
+		SlidingWindow window = new SlidingWindow(10_000, 16);
+		for (int i = 0; i <= 10; i++) {
+			window.add(i * 1000L, 50);
+		}
+
+		// The sample at 10 s is still inside the window at 19 s
+		window.add(19_000, 60);
+		assertEquals(2, window.size());
+		assertTrue(window.isFull());
+	}
+
+	@Test
+	void matchesBruteForceUnderBothEvictions() {
+		long windowMillis = 5_000;
+		int capacity = 8;
+		SlidingWindow window = new SlidingWindow(windowMillis, capacity);
+		ArrayDeque<long[]> expected = new ArrayDeque<>();
+		Random random = new Random(42);
+
+		long time = 0;
+		for (int i = 0; i < 2_000; i++) {
+			time += random.nextInt(1_500);
+			double value = random.nextInt(100);
+			window.add(time, value);
+
+			expected.addLast(new long[]{time, (long) value});
+			while (expected.peekFirst()[0] <= time - windowMillis || expected.size() > capacity) {
+				expected.removeFirst();
+			}
+
+			double min = Double.MAX_VALUE, max = -Double.MAX_VALUE, sum = 0;
+			for (long[] sample : expected) {
+				min = Math.min(min, sample[1]);
+				max = Math.max(max, sample[1]);
+				sum += sample[1];
+			}
+			assertEquals(expected.size(), window.size());
+			assertEquals(min, window.min(), 0);
+			assertEquals(max, window.max(), 0);
+			assertEquals(sum / expected.size(), window.mean(), 1e-6);
+		}
+	}
+
+}